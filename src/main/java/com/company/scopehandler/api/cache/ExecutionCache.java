@@ -2,53 +2,74 @@ package com.company.scopehandler.api.cache;
 
 import com.company.scopehandler.api.domain.Mode;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 public final class ExecutionCache implements AutoCloseable {
     private final Path file;
-    private final Set<String> executed;
-    private final BufferedWriter writer;
+    private final FingerprintSet executed;
+    private final ResumeJournal journal;
+    private final long discardedBytes;
 
-    private ExecutionCache(Path file, Set<String> executed, BufferedWriter writer) {
+    private ExecutionCache(Path file, FingerprintSet executed, ResumeJournal journal) {
+        this(file, executed, journal, 0);
+    }
+
+    private ExecutionCache(Path file, FingerprintSet executed, ResumeJournal journal, long discardedBytes) {
         this.file = file;
         this.executed = executed;
-        this.writer = writer;
+        this.journal = journal;
+        this.discardedBytes = discardedBytes;
     }
 
     public static ExecutionCache load(Path file, boolean enabled) {
+        return load(file, enabled, JournalSettings.immediate(), true);
+    }
+
+    public static ExecutionCache load(Path file, boolean enabled, JournalSettings settings) {
+        return load(file, enabled, settings, true);
+    }
+
+    public static ExecutionCache load(Path file, boolean enabled, ResumeSettings settings) {
+        if (settings.binary()) {
+            return loadMapped(file, enabled, settings.journal());
+        }
+        return load(file, enabled, settings.journal(), settings.verify());
+    }
+
+    public static ExecutionCache loadMapped(Path file, boolean enabled, JournalSettings settings) {
+        FingerprintSet executed = new FingerprintSet(null);
+        if (!enabled) {
+            return new ExecutionCache(file, executed, null);
+        }
+        MappedExecutionJournal.ScanResult scan = MappedExecutionJournal.open(file, settings, executed);
+        return new ExecutionCache(file, executed, scan.journal(), scan.discardedBytes());
+    }
+
+    public static long compactMapped(Path file) {
+        return MappedExecutionJournal.compact(file).records();
+    }
+
+    public static ExecutionCache load(Path file, boolean enabled, JournalSettings settings, boolean verifyHits) {
         if (!enabled) {
-            return new ExecutionCache(file, new HashSet<>(), null);
+            return new ExecutionCache(file, new FingerprintSet(null), null);
         }
-        Set<String> executed = new HashSet<>();
+        JournalHolder holder = new JournalHolder();
+        FingerprintSet executed = new FingerprintSet(verifyHits ? holder::matches : null);
         if (Files.exists(file)) {
-            try {
-                Files.readAllLines(file, StandardCharsets.UTF_8)
-                        .forEach(line -> {
-                            String trimmed = line.trim();
-                            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
-                                executed.add(trimmed);
-                            }
-                        });
+            try (InputStream in = Files.newInputStream(file)) {
+                readKeys(in, executed);
             } catch (IOException e) {
                 throw new IllegalStateException("Failed to read cache: " + file, e);
             }
         }
         try {
             Files.createDirectories(file.getParent());
-            BufferedWriter writer = Files.newBufferedWriter(
-                    file,
-                    StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.APPEND
-            );
-            return new ExecutionCache(file, executed, writer);
+            holder.journal = new ExecutionJournal(file, settings);
+            return new ExecutionCache(file, executed, holder.journal);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to open cache: " + file, e);
         }
@@ -59,19 +80,19 @@ public final class ExecutionCache implements AutoCloseable {
     }
 
     public void record(Mode mode, String clientId, String scope) {
-        if (writer == null) {
+        record(mode, clientId, scope, -1);
+    }
+
+    public void record(Mode mode, String clientId, String scope, long planIndex) {
+        if (journal == null) {
             return;
         }
-        String key = key(mode, clientId, scope);
-        if (executed.add(key)) {
-            try {
-                writer.write(key);
-                writer.newLine();
-                writer.flush();
-            } catch (IOException e) {
-                throw new IllegalStateException("Failed to write cache", e);
-            }
-        }
+        // readers never block; only the thread that won the add appends the record
+        executed.add(key(mode, clientId, scope), key -> journal.append(mode, key, planIndex));
+    }
+
+    public long getDiscardedBytes() {
+        return discardedBytes;
     }
 
     public Path getFile() {
@@ -79,10 +100,10 @@ public final class ExecutionCache implements AutoCloseable {
     }
 
     public void deleteFile() {
-        if (writer != null) {
+        if (journal != null) {
             try {
-                writer.close();
-            } catch (IOException ignored) {
+                journal.close();
+            } catch (IllegalStateException ignored) {
                 // best-effort
             }
         }
@@ -97,15 +118,61 @@ public final class ExecutionCache implements AutoCloseable {
         return mode.name() + "|" + clientId + "|" + scope;
     }
 
+    private static void readKeys(InputStream in, FingerprintSet executed) throws IOException {
+        // lines are split inside each chunk; only a line cut by the chunk end is moved to the front
+        byte[] buffer = new byte[64 * 1024];
+        long bufferOffset = 0;
+        int carried = 0;
+        int read;
+        while ((read = in.read(buffer, carried, buffer.length - carried)) != -1) {
+            int end = carried + read;
+            int lineStart = 0;
+            for (int i = carried; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    loadLine(buffer, lineStart, i, bufferOffset, executed);
+                    lineStart = i + 1;
+                }
+            }
+            carried = end - lineStart;
+            if (carried == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            } else {
+                System.arraycopy(buffer, lineStart, buffer, 0, carried);
+            }
+            bufferOffset += lineStart;
+        }
+        loadLine(buffer, 0, carried, bufferOffset, executed);
+    }
+
+    private static void loadLine(byte[] buffer, int start, int end, long bufferOffset, FingerprintSet executed) {
+        while (start < end && isBlank(buffer[start])) {
+            start++;
+        }
+        while (end > start && isBlank(buffer[end - 1])) {
+            end--;
+        }
+        if (start == end || buffer[start] == '#') {
+            return;
+        }
+        executed.load(Arrays.copyOfRange(buffer, start, end), bufferOffset + start);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
     @Override
     public void close() {
-        if (writer == null) {
-            return;
+        if (journal != null) {
+            journal.close();
         }
-        try {
-            writer.close();
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to close cache", e);
+    }
+
+    private static final class JournalHolder {
+        private ExecutionJournal journal;
+
+        private boolean matches(long offset, byte[] key) {
+            return journal != null && journal.matches(offset, key);
         }
     }
 }
@@ -0,0 +1,246 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class ExecutionJournal implements ResumeJournal {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final JournalSettings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingRecords;
+    private long appendPosition;
+    private volatile long writtenPosition;
+    private boolean closed;
+    private IOException failure;
+    private FileChannel reader;
+    private final Thread flusher;
+    private final Thread shutdownHook;
+
+    ExecutionJournal(Path file, JournalSettings settings) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.settings = settings;
+        this.appendPosition = channel.size();
+        this.writtenPosition = appendPosition;
+        if (settings.groupCommit()) {
+            this.flusher = new Thread(this::runFlusher, "resume-journal-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+            this.shutdownHook = new Thread(this::flushQuietly, "resume-journal-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } else {
+            this.flusher = null;
+            this.shutdownHook = null;
+        }
+    }
+
+    @Override
+    public long append(Mode mode, byte[] record, long planIndex) {
+        if (!settings.groupCommit()) {
+            writeLock.lock();
+            try {
+                long offset = appendPosition;
+                write(line(record));
+                appendPosition += record.length + LINE_SEPARATOR.length;
+                return offset;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write cache", e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IllegalStateException("Failed to write cache", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("cache journal is closed");
+            }
+            long offset = appendPosition;
+            pending.writeBytes(record);
+            pending.writeBytes(LINE_SEPARATOR);
+            appendPosition += record.length + LINE_SEPARATOR.length;
+            pendingRecords++;
+            if (pendingRecords >= settings.flushEveryRecords()) {
+                batchReady.signal();
+            }
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean matches(long offset, byte[] key) {
+        try {
+            if (offset + key.length > writtenPosition) {
+                // only reachable for a fingerprint hit on a record still sitting in the group-commit buffer
+                flushPending();
+            }
+            writeLock.lock();
+            try {
+                if (reader == null) {
+                    reader = FileChannel.open(file, StandardOpenOption.READ);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(key.length + 1);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                int read = reader.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            buffer.flip();
+            if (buffer.remaining() < key.length) {
+                return false;
+            }
+            for (byte b : key) {
+                if (buffer.get() != b) {
+                    return false;
+                }
+            }
+            return !buffer.hasRemaining() || isLineEnd(buffer.get());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read cache", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (settings.groupCommit()) {
+            lock.lock();
+            try {
+                closed = true;
+                batchReady.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // JVM already shutting down; the hook flushes
+            }
+        }
+        try {
+            flushPending();
+            channel.close();
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to close cache", e);
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.flushIntervalMs()));
+        while (true) {
+            lock.lock();
+            try {
+                long remaining = intervalNanos;
+                while (!closed && pendingRecords < settings.flushEveryRecords() && remaining > 0) {
+                    remaining = batchReady.awaitNanos(remaining);
+                }
+                if (closed) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flushPending();
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private void flushPending() throws IOException {
+        // writeLock keeps batches in order when the flusher and close/shutdown race
+        writeLock.lock();
+        try {
+            byte[] batch;
+            lock.lock();
+            try {
+                if (pendingRecords == 0) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream();
+                pendingRecords = 0;
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flushPending();
+        } catch (IOException ignored) {
+            // best-effort on shutdown
+        }
+    }
+
+    private void write(byte[] data) throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (settings.fsync()) {
+            channel.force(false);
+        }
+        writtenPosition += data.length;
+    }
+
+    private static byte[] line(byte[] record) {
+        byte[] line = new byte[record.length + LINE_SEPARATOR.length];
+        System.arraycopy(record, 0, line, 0, record.length);
+        System.arraycopy(LINE_SEPARATOR, 0, line, record.length, LINE_SEPARATOR.length);
+        return line;
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r' || b == ' ' || b == '\t';
+    }
+}
@@ -0,0 +1,170 @@
+package com.company.scopehandler.api.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+final class FingerprintSet {
+    private static final long EMPTY = 0L;
+    private static final long NO_OFFSET = -1L;
+    private static final double MAX_LOAD = 0.75;
+
+    private final ToLongFunction<byte[]> hasher;
+    private final Verifier verifier;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Table table;
+    private volatile int size;
+
+    FingerprintSet(Verifier verifier) {
+        this(FingerprintSet::hash, verifier);
+    }
+
+    FingerprintSet(ToLongFunction<byte[]> hasher, Verifier verifier) {
+        this.hasher = hasher;
+        this.verifier = verifier;
+        this.table = new Table(1024, verifier != null);
+    }
+
+    boolean contains(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return find(table, fingerprint(bytes), bytes);
+    }
+
+    boolean add(String key, OffsetSupplier offsetSupplier) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long fingerprint = fingerprint(bytes);
+        writeLock.lock();
+        try {
+            if (find(table, fingerprint, bytes)) {
+                return false;
+            }
+            insert(fingerprint, offsetSupplier.next(bytes));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void load(byte[] key, long offset) {
+        // the file is append-only and already deduplicated, so loading skips the membership probe
+        writeLock.lock();
+        try {
+            insert(fingerprint(key), offset);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    boolean containsFingerprint(long fingerprint) {
+        return find(table, normalize(fingerprint), null);
+    }
+
+    void loadFingerprint(long fingerprint) {
+        writeLock.lock();
+        try {
+            insert(normalize(fingerprint), NO_OFFSET);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean find(Table current, long fingerprint, byte[] key) {
+        int mask = current.fingerprints.length() - 1;
+        int index = (int) fingerprint & mask;
+        while (true) {
+            long stored = current.fingerprints.get(index);
+            if (stored == EMPTY) {
+                return false;
+            }
+            // a matching fingerprint may still be a different key; keep probing when verification rejects it
+            if (stored == fingerprint && matches(current, index, key)) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private boolean matches(Table current, int index, byte[] key) {
+        if (verifier == null || key == null) {
+            return true;
+        }
+        return verifier.matches(current.offsets.get(index), key);
+    }
+
+    private void insert(long fingerprint, long offset) {
+        if (size + 1 > table.fingerprints.length() * MAX_LOAD) {
+            table = table.grow();
+        }
+        table.put(fingerprint, offset);
+        size++;
+    }
+
+    private long fingerprint(byte[] key) {
+        return normalize(hasher.applyAsLong(key));
+    }
+
+    private static long normalize(long value) {
+        return value == EMPTY ? 1L : value;
+    }
+
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    interface Verifier {
+        boolean matches(long offset, byte[] key);
+    }
+
+    interface OffsetSupplier {
+        long next(byte[] key);
+    }
+
+    private static final class Table {
+        private final AtomicLongArray fingerprints;
+        private final AtomicLongArray offsets;
+
+        private Table(int capacity, boolean withOffsets) {
+            this.fingerprints = new AtomicLongArray(capacity);
+            this.offsets = withOffsets ? new AtomicLongArray(capacity) : null;
+        }
+
+        private void put(long fingerprint, long offset) {
+            int mask = fingerprints.length() - 1;
+            int index = (int) fingerprint & mask;
+            while (fingerprints.get(index) != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            // offset first: a reader that sees the fingerprint also sees its offset
+            if (offsets != null) {
+                offsets.set(index, offset);
+            }
+            fingerprints.set(index, fingerprint);
+        }
+
+        private Table grow() {
+            Table next = new Table(fingerprints.length() * 2, offsets != null);
+            for (int i = 0; i < fingerprints.length(); i++) {
+                long fingerprint = fingerprints.get(i);
+                if (fingerprint != EMPTY) {
+                    next.put(fingerprint, offsets != null ? offsets.get(i) : NO_OFFSET);
+                }
+            }
+            return next;
+        }
+    }
+}
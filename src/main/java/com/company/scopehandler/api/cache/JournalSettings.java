@@ -0,0 +1,7 @@
+package com.company.scopehandler.api.cache;
+
+public record JournalSettings(boolean groupCommit, int flushEveryRecords, long flushIntervalMs, boolean fsync) {
+    public static JournalSettings immediate() {
+        return new JournalSettings(false, 1, 0, false);
+    }
+}
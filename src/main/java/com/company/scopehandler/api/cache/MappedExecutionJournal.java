@@ -0,0 +1,246 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+final class MappedExecutionJournal implements ResumeJournal {
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+    private static final int MAGIC = 0x53484a31;
+    private static final int VERSION = 1;
+    private static final int CRC_OFFSET = 20;
+    private static final long REGION_SIZE = (long) RECORD_SIZE * (1 << 20);
+
+    private final FileChannel channel;
+    private final JournalSettings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private int unforced;
+    private boolean closed;
+
+    private MappedExecutionJournal(FileChannel channel, JournalSettings settings, long position) {
+        this.channel = channel;
+        this.settings = settings;
+        this.position = position;
+        this.regionStart = -1;
+    }
+
+    static ScanResult open(Path file, JournalSettings settings, FingerprintSet executed) {
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file) && Files.size(file) > 0) {
+                ScanResult scan = scan(file, executed);
+                if (scan.duplicates() > scan.records() / 10) {
+                    // same unique hashes as the scan already loaded, so only the file changes
+                    scan = compact(file);
+                }
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                // a torn or zero-filled tail is dropped; new records overwrite it
+                channel.truncate(scan.validEnd());
+                return scan.withJournal(new MappedExecutionJournal(channel, settings, scan.validEnd()));
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(header(), 0);
+            return new ScanResult(0, 0, 0, HEADER_SIZE, null)
+                    .withJournal(new MappedExecutionJournal(channel, settings, HEADER_SIZE));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open cache: " + file, e);
+        }
+    }
+
+    static ScanResult compact(Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        FingerprintSet seen = new FingerprintSet(null);
+        long[] counts = new long[3];
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkHeader(in, file);
+            ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            out.write(header());
+            long validEnd = forEachRecord(in, file, (record, offset) -> {
+                long hash = record.getLong(4);
+                if (seen.containsFingerprint(hash)) {
+                    counts[1]++;
+                    return;
+                }
+                seen.loadFingerprint(hash);
+                counts[0]++;
+                if (!batch.hasRemaining()) {
+                    flushBatch(out, batch);
+                }
+                batch.put(record.array(), 0, RECORD_SIZE);
+            });
+            flushBatch(out, batch);
+            out.force(true);
+            counts[2] = in.size() - validEnd;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compact cache: " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compact cache: " + file, e);
+        }
+        return new ScanResult(counts[0], counts[1], counts[2], HEADER_SIZE + counts[0] * RECORD_SIZE, null);
+    }
+
+    @Override
+    public long append(Mode mode, byte[] key, long planIndex) {
+        long hash = FingerprintSet.hash(key);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("cache journal is closed");
+            }
+            if (region == null || position + RECORD_SIZE > regionStart + REGION_SIZE) {
+                mapRegion(position);
+            }
+            ByteBuffer record = ByteBuffer.wrap(scratch);
+            record.put(0, (byte) mode.ordinal());
+            record.put(1, (byte) 0).put(2, (byte) 0).put(3, (byte) 0);
+            record.putLong(4, hash);
+            record.putLong(12, planIndex);
+            crc.reset();
+            crc.update(scratch, 0, CRC_OFFSET);
+            record.putInt(CRC_OFFSET, (int) crc.getValue());
+            long offset = position;
+            region.put((int) (offset - regionStart), scratch);
+            position += RECORD_SIZE;
+            if (settings.fsync() && ++unforced >= Math.max(1, settings.flushEveryRecords())) {
+                region.force();
+                unforced = 0;
+            }
+            return offset;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write cache", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean matches(long offset, byte[] key) {
+        // binary records hold only the key hash; exact verification needs the text journal
+        return true;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (region != null) {
+                region.force();
+            }
+            region = null;
+            // drops the zero-filled part of the last mapped region
+            channel.truncate(position);
+            channel.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to close cache", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void mapRegion(long start) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        regionStart = start;
+    }
+
+    private static ScanResult scan(Path file, FingerprintSet executed) throws IOException {
+        long[] counts = new long[2];
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(in, file);
+            long validEnd = forEachRecord(in, file, (record, offset) -> {
+                long hash = record.getLong(4);
+                if (executed.containsFingerprint(hash)) {
+                    counts[1]++;
+                    return;
+                }
+                executed.loadFingerprint(hash);
+                counts[0]++;
+            });
+            return new ScanResult(counts[0], counts[1], in.size() - validEnd, validEnd, null);
+        }
+    }
+
+    private static long forEachRecord(FileChannel in, Path file, RecordConsumer consumer) throws IOException {
+        long size = in.size();
+        long offset = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[RECORD_SIZE];
+        while (offset + RECORD_SIZE <= size) {
+            long length = Math.min(REGION_SIZE, (size - offset) / RECORD_SIZE * RECORD_SIZE);
+            MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            while (mapped.remaining() >= RECORD_SIZE) {
+                mapped.get(bytes);
+                crc.reset();
+                crc.update(bytes, 0, CRC_OFFSET);
+                ByteBuffer record = ByteBuffer.wrap(bytes);
+                if ((int) crc.getValue() != record.getInt(CRC_OFFSET)) {
+                    return offset;
+                }
+                consumer.accept(record, offset);
+                offset += RECORD_SIZE;
+            }
+        }
+        return offset;
+    }
+
+    private static void checkHeader(FileChannel in, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        in.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IllegalStateException("Invalid binary cache: " + file);
+        }
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(0);
+        header.flip();
+        return header;
+    }
+
+    private static void flushBatch(FileChannel out, ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            out.write(batch);
+        }
+        batch.clear();
+    }
+
+    private interface RecordConsumer {
+        void accept(ByteBuffer record, long offset) throws IOException;
+    }
+
+    record ScanResult(long records, long duplicates, long discardedBytes, long validEnd, MappedExecutionJournal journal) {
+        private ScanResult withJournal(MappedExecutionJournal journal) {
+            return new ScanResult(records, duplicates, discardedBytes, validEnd, journal);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class PlanCheckpoint implements AutoCloseable {
+    private static final String HEADER = "# scope-handler checkpoint v1";
+    // without group commit the checkpoint still batches its rewrites; a redone operation is idempotent on the AS
+    private static final int DEFAULT_SAVE_EVERY_RECORDS = 1024;
+    private static final long DEFAULT_SAVE_INTERVAL_MS = 1000;
+
+    private final Path file;
+    private final long planFingerprint;
+    private final long totalOperations;
+    private final int saveEveryRecords;
+    private final long saveIntervalNanos;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Thread shutdownHook;
+    private final boolean resumed;
+    private final long resumeWatermark;
+    private final BitSet resumeCompleted;
+    private final List<Long> resumeFailed;
+    private long watermark;
+    // bit i = operation (watermark + i) finished out of order
+    private BitSet completedAbove;
+    private final TreeSet<Long> failed;
+    private int unsaved;
+    private long lastSaveNanos;
+    private long generation;
+    private long writtenGeneration;
+    private volatile boolean closed;
+
+    private PlanCheckpoint(Path file,
+                           long planFingerprint,
+                           long totalOperations,
+                           JournalSettings settings,
+                           boolean resumed,
+                           long watermark,
+                           BitSet completedAbove,
+                           TreeSet<Long> failed) {
+        this.file = file;
+        this.planFingerprint = planFingerprint;
+        this.totalOperations = totalOperations;
+        this.saveEveryRecords = settings.groupCommit()
+                ? Math.max(1, settings.flushEveryRecords())
+                : DEFAULT_SAVE_EVERY_RECORDS;
+        this.saveIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.groupCommit()
+                ? Math.max(1, settings.flushIntervalMs())
+                : DEFAULT_SAVE_INTERVAL_MS);
+        this.fsync = settings.fsync();
+        this.resumed = resumed;
+        this.resumeWatermark = watermark;
+        this.resumeCompleted = (BitSet) completedAbove.clone();
+        this.resumeFailed = Collections.unmodifiableList(new ArrayList<>(failed));
+        this.watermark = watermark;
+        this.completedAbove = completedAbove;
+        this.failed = failed;
+        this.lastSaveNanos = System.nanoTime();
+        this.shutdownHook = new Thread(this::saveQuietly, "plan-checkpoint-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public static PlanCheckpoint load(Path file, long planFingerprint, long totalOperations, JournalSettings settings) {
+        TreeSet<Long> failed = new TreeSet<>();
+        if (Files.exists(file)) {
+            Map<String, String> values = read(file);
+            if (Long.toHexString(planFingerprint).equals(values.get("plan"))
+                    && String.valueOf(totalOperations).equals(values.get("total"))) {
+                try {
+                    long watermark = Long.parseLong(values.getOrDefault("watermark", "0"));
+                    BitSet completed = BitSet.valueOf(Base64.getDecoder().decode(values.getOrDefault("done", "")));
+                    String failedValue = values.getOrDefault("failed", "");
+                    if (!failedValue.isEmpty()) {
+                        for (String index : failedValue.split(",")) {
+                            failed.add(Long.parseLong(index.trim()));
+                        }
+                    }
+                    return new PlanCheckpoint(file, planFingerprint, totalOperations, settings, true,
+                            watermark, completed, failed);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException("Invalid checkpoint: " + file, e);
+                }
+            }
+        }
+        try {
+            Files.createDirectories(file.getParent());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open checkpoint: " + file, e);
+        }
+        return new PlanCheckpoint(file, planFingerprint, totalOperations, settings, false, 0, new BitSet(), failed);
+    }
+
+    public static long fingerprint(Mode mode, List<String> clients, List<String> scopes) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, mode.name());
+        h = mix(h, "#clients");
+        for (String client : clients) {
+            h = mix(h, client);
+        }
+        h = mix(h, "#scopes");
+        for (String scope : scopes) {
+            h = mix(h, scope);
+        }
+        return h;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public long getResumeWatermark() {
+        return resumeWatermark;
+    }
+
+    public List<Long> getResumeFailed() {
+        return resumeFailed;
+    }
+
+    public boolean isCompletedOnResume(long planIndex) {
+        if (planIndex < resumeWatermark) {
+            return !resumeFailed.contains(planIndex);
+        }
+        long relative = planIndex - resumeWatermark;
+        return relative <= Integer.MAX_VALUE && resumeCompleted.get((int) relative);
+    }
+
+    public long getResumePending() {
+        return totalOperations - resumeWatermark - resumeCompleted.cardinality() + resumeFailed.size();
+    }
+
+    public void complete(long planIndex, boolean failedOperation) {
+        if (planIndex < 0) {
+            return;
+        }
+        Snapshot snapshot = null;
+        lock.lock();
+        try {
+            if (failedOperation) {
+                failed.add(planIndex);
+            } else {
+                failed.remove(planIndex);
+            }
+            if (planIndex >= watermark) {
+                completedAbove.set(Math.toIntExact(planIndex - watermark));
+                int advance = completedAbove.nextClearBit(0);
+                if (advance > 0) {
+                    watermark += advance;
+                    completedAbove = completedAbove.get(advance, Math.max(advance, completedAbove.length()));
+                }
+            }
+            unsaved++;
+            if (unsaved >= saveEveryRecords || System.nanoTime() - lastSaveNanos >= saveIntervalNanos) {
+                snapshot = snapshot();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // the file is written outside the state lock, so result threads only wait for the in-memory update
+        if (snapshot != null) {
+            write(snapshot);
+        }
+    }
+
+    public long getWatermark() {
+        lock.lock();
+        try {
+            return watermark;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void deleteFile() {
+        lock.lock();
+        writeLock.lock();
+        try {
+            closed = true;
+            removeShutdownHook();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to delete checkpoint file: " + file, e);
+        } finally {
+            writeLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (unsaved > 0) {
+                write(snapshot());
+            }
+            closed = true;
+            removeShutdownHook();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() {
+        StringBuilder content = new StringBuilder(HEADER).append('\n')
+                .append("plan=").append(Long.toHexString(planFingerprint)).append('\n')
+                .append("total=").append(totalOperations).append('\n')
+                .append("watermark=").append(watermark).append('\n')
+                .append("done=").append(Base64.getEncoder().encodeToString(completedAbove.toByteArray())).append('\n')
+                .append("failed=");
+        boolean first = true;
+        for (Long index : failed) {
+            if (!first) {
+                content.append(',');
+            }
+            content.append(index);
+            first = false;
+        }
+        content.append('\n');
+        unsaved = 0;
+        lastSaveNanos = System.nanoTime();
+        return new Snapshot(++generation, content.toString());
+    }
+
+    private void write(Snapshot snapshot) {
+        writeLock.lock();
+        try {
+            if (closed || snapshot.generation() <= writtenGeneration) {
+                // a newer state already reached the file
+                return;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, snapshot.content(), StandardCharsets.UTF_8);
+            if (fsync) {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenGeneration = snapshot.generation();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write checkpoint: " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void saveQuietly() {
+        lock.lock();
+        try {
+            if (unsaved > 0) {
+                write(snapshot());
+            }
+        } catch (IllegalStateException ignored) {
+            // best-effort on shutdown
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeShutdownHook() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // JVM already shutting down; the hook saves
+        }
+    }
+
+    private record Snapshot(long generation, String content) {
+    }
+
+    private static Map<String, String> read(Path file) {
+        Map<String, String> values = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String trimmed = line.trim();
+                int separator = trimmed.indexOf('=');
+                if (trimmed.isEmpty() || trimmed.startsWith("#") || separator < 0) {
+                    continue;
+                }
+                values.put(trimmed.substring(0, separator), trimmed.substring(separator + 1));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read checkpoint: " + file, e);
+        }
+        return values;
+    }
+
+    private static long mix(long h, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= 0xff;
+        h *= 0x100000001b3L;
+        return h;
+    }
+}
@@ -0,0 +1,12 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+
+interface ResumeJournal extends AutoCloseable {
+    long append(Mode mode, byte[] key, long planIndex);
+
+    boolean matches(long offset, byte[] key);
+
+    @Override
+    void close();
+}
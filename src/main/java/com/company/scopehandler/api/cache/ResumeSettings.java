@@ -0,0 +1,7 @@
+package com.company.scopehandler.api.cache;
+
+public record ResumeSettings(boolean checkpoint, boolean binary, boolean verify, JournalSettings journal) {
+    public static ResumeSettings defaults() {
+        return new ResumeSettings(false, false, true, JournalSettings.immediate());
+    }
+}
@@ -0,0 +1,22 @@
+package com.company.scopehandler.api.domain;
+
+public enum ExecutorMode {
+    PLATFORM,
+    VIRTUAL,
+    REACTIVE,
+    AFFINITY;
+
+    public static ExecutorMode from(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("executor is required");
+        }
+        String normalized = value.trim().toLowerCase();
+        return switch (normalized) {
+            case "platform", "fixed", "pool" -> PLATFORM;
+            case "virtual" -> VIRTUAL;
+            case "reactive" -> REACTIVE;
+            case "affinity" -> AFFINITY;
+            default -> throw new IllegalArgumentException("invalid executor: " + value);
+        };
+    }
+}
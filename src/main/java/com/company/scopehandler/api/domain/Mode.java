@@ -4,7 +4,8 @@ public enum Mode {
     ADD,
     REMOVE,
     LIST,
-    FIND;
+    FIND,
+    WARMUP;
 
     public static Mode from(String value) {
         if (value == null) {
@@ -16,6 +17,7 @@ public enum Mode {
             case "remove", "desassociar", "dissociate" -> REMOVE;
             case "list", "listar" -> LIST;
             case "find", "buscar" -> FIND;
+            case "warmup", "aquecer" -> WARMUP;
             default -> throw new IllegalArgumentException("invalid mode: " + value);
         };
     }
@@ -5,10 +5,16 @@ import java.util.Objects;
 public final class Operation {
     private final String clientId;
     private final String scope;
+    private final long planIndex;
 
     public Operation(String clientId, String scope) {
+        this(clientId, scope, -1);
+    }
+
+    public Operation(String clientId, String scope, long planIndex) {
         this.clientId = Objects.requireNonNull(clientId, "clientId");
         this.scope = Objects.requireNonNull(scope, "scope");
+        this.planIndex = planIndex;
     }
 
     public String getClientId() {
@@ -18,4 +24,8 @@ public final class Operation {
     public String getScope() {
         return scope;
     }
+
+    public long getPlanIndex() {
+        return planIndex;
+    }
 }
@@ -4,11 +4,43 @@ public final class OperationOutcome {
     private final OperationStatus status;
     private final int statusCode;
     private final String message;
+    private final int retries;
+    private final long startedAtEpochMs;
+    private final long durationMs;
 
     public OperationOutcome(OperationStatus status, int statusCode, String message) {
+        this(status, statusCode, message, 0);
+    }
+
+    public OperationOutcome(OperationStatus status, int statusCode, String message, int retries) {
+        this(status, statusCode, message, retries, -1, -1);
+    }
+
+    private OperationOutcome(OperationStatus status,
+                             int statusCode,
+                             String message,
+                             int retries,
+                             long startedAtEpochMs,
+                             long durationMs) {
         this.status = status;
         this.statusCode = statusCode;
         this.message = message;
+        this.retries = retries;
+        this.startedAtEpochMs = startedAtEpochMs;
+        this.durationMs = durationMs;
+    }
+
+    public OperationOutcome withRetries(int retries) {
+        return new OperationOutcome(status, statusCode, message, retries, startedAtEpochMs, durationMs);
+    }
+
+    // bulk calls time each scope on its own; -1 means the caller measures it
+    public OperationOutcome withTiming(long startedAtEpochMs, long durationMs) {
+        return new OperationOutcome(status, statusCode, message, retries, startedAtEpochMs, durationMs);
+    }
+
+    public boolean isTimed() {
+        return durationMs >= 0;
     }
 
     public boolean isSuccess() {
@@ -27,6 +59,18 @@ public final class OperationOutcome {
         return message;
     }
 
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getStartedAtEpochMs() {
+        return startedAtEpochMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
     public static OperationOutcome ok(int statusCode, String message) {
         return new OperationOutcome(OperationStatus.OK, statusCode, message);
     }
@@ -8,10 +8,13 @@ public final class OperationResult {
     private final String clientId;
     private final String scope;
     private final OperationStatus status;
+    private final int statusCode;
+    private final int retries;
     private final String message;
     private final long startedAtEpochMs;
     private final long durationMs;
     private final String threadName;
+    private final long planIndex;
 
     public OperationResult(
             String operationId,
@@ -25,6 +28,60 @@ public final class OperationResult {
             long startedAtEpochMs,
             long durationMs,
             String threadName) {
+        this(operationId, sequence, threadIndex, mode, clientId, scope, status, 0, message,
+                startedAtEpochMs, durationMs, threadName);
+    }
+
+    public OperationResult(
+            String operationId,
+            long sequence,
+            long threadIndex,
+            Mode mode,
+            String clientId,
+            String scope,
+            OperationStatus status,
+            int statusCode,
+            String message,
+            long startedAtEpochMs,
+            long durationMs,
+            String threadName) {
+        this(operationId, sequence, threadIndex, mode, clientId, scope, status, statusCode, 0, message,
+                startedAtEpochMs, durationMs, threadName);
+    }
+
+    public OperationResult(
+            String operationId,
+            long sequence,
+            long threadIndex,
+            Mode mode,
+            String clientId,
+            String scope,
+            OperationStatus status,
+            int statusCode,
+            int retries,
+            String message,
+            long startedAtEpochMs,
+            long durationMs,
+            String threadName) {
+        this(operationId, sequence, threadIndex, mode, clientId, scope, status, statusCode, retries, message,
+                startedAtEpochMs, durationMs, threadName, -1);
+    }
+
+    public OperationResult(
+            String operationId,
+            long sequence,
+            long threadIndex,
+            Mode mode,
+            String clientId,
+            String scope,
+            OperationStatus status,
+            int statusCode,
+            int retries,
+            String message,
+            long startedAtEpochMs,
+            long durationMs,
+            String threadName,
+            long planIndex) {
         this.operationId = operationId;
         this.sequence = sequence;
         this.threadIndex = threadIndex;
@@ -32,13 +89,24 @@ public final class OperationResult {
         this.clientId = clientId;
         this.scope = scope;
         this.status = status;
+        this.statusCode = statusCode;
+        this.retries = retries;
         this.message = message;
         this.startedAtEpochMs = startedAtEpochMs;
         this.durationMs = durationMs;
         this.threadName = threadName;
+        this.planIndex = planIndex;
     }
 
     public static OperationResult withMeta(OperationResult base, String operationId, long sequence, long threadIndex) {
+        return withMeta(base, operationId, sequence, threadIndex, base.planIndex);
+    }
+
+    public static OperationResult withMeta(OperationResult base,
+                                           String operationId,
+                                           long sequence,
+                                           long threadIndex,
+                                           long planIndex) {
         return new OperationResult(
                 operationId,
                 sequence,
@@ -47,10 +115,13 @@ public final class OperationResult {
                 base.clientId,
                 base.scope,
                 base.status,
+                base.statusCode,
+                base.retries,
                 base.message,
                 base.startedAtEpochMs,
                 base.durationMs,
-                base.threadName
+                base.threadName,
+                planIndex
         );
     }
 
@@ -86,6 +157,14 @@ public final class OperationResult {
         return status;
     }
 
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -101,4 +180,8 @@ public final class OperationResult {
     public String getThreadName() {
         return threadName;
     }
+
+    public long getPlanIndex() {
+        return planIndex;
+    }
 }
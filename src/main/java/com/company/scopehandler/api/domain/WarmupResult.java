@@ -0,0 +1,32 @@
+package com.company.scopehandler.api.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class WarmupResult {
+    private final Map<String, Long> counts;
+    private final List<String> failedAppIds;
+
+    public WarmupResult(Map<String, Long> counts, List<String> failedAppIds) {
+        this.counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+        this.failedAppIds = List.copyOf(failedAppIds);
+    }
+
+    public static WarmupResult empty() {
+        return new WarmupResult(Map.of(), List.of());
+    }
+
+    public Map<String, Long> getCounts() {
+        return counts;
+    }
+
+    public List<String> getFailedAppIds() {
+        return failedAppIds;
+    }
+
+    public boolean hasFailures() {
+        return !failedAppIds.isEmpty();
+    }
+}
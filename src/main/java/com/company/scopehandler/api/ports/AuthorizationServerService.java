@@ -1,6 +1,8 @@
 package com.company.scopehandler.api.ports;
 
 import com.company.scopehandler.api.domain.OperationOutcome;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public interface AuthorizationServerService {
     OperationOutcome associateScope(String clientId, String scope);
@@ -11,8 +13,56 @@ public interface AuthorizationServerService {
 
     java.util.List<String> listScopes(String clientId);
 
+    // used to decide whether to call the AS at all, so providers must not answer it from stale data
+    default java.util.List<String> listCurrentScopes(String clientId) {
+        return listScopes(clientId);
+    }
+
     java.util.List<String> listClients();
 
     java.util.List<String> findClientsByScopes(java.util.List<String> scopes,
                                                com.company.scopehandler.api.domain.FindMatchMode matchMode);
+
+    default Mono<OperationOutcome> associateScopeAsync(String clientId, String scope) {
+        return Mono.fromCallable(() -> associateScope(clientId, scope)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default Mono<OperationOutcome> dissociateScopeAsync(String clientId, String scope) {
+        return Mono.fromCallable(() -> dissociateScope(clientId, scope)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default Mono<OperationOutcome> createScopeAsync(String scope) {
+        return Mono.fromCallable(() -> createScope(scope)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default java.util.Map<String, OperationOutcome> associateScopes(String clientId, java.util.List<String> scopes) {
+        java.util.Map<String, OperationOutcome> outcomes = new java.util.LinkedHashMap<>();
+        for (String scope : scopes) {
+            long startedAt = System.currentTimeMillis();
+            OperationOutcome outcome = associateScope(clientId, scope);
+            outcomes.put(scope, outcome.withTiming(startedAt, System.currentTimeMillis() - startedAt));
+        }
+        return outcomes;
+    }
+
+    default java.util.Map<String, OperationOutcome> dissociateScopes(String clientId, java.util.List<String> scopes) {
+        java.util.Map<String, OperationOutcome> outcomes = new java.util.LinkedHashMap<>();
+        for (String scope : scopes) {
+            long startedAt = System.currentTimeMillis();
+            OperationOutcome outcome = dissociateScope(clientId, scope);
+            outcomes.put(scope, outcome.withTiming(startedAt, System.currentTimeMillis() - startedAt));
+        }
+        return outcomes;
+    }
+
+    default com.company.scopehandler.api.domain.WarmupResult warmUp() {
+        return com.company.scopehandler.api.domain.WarmupResult.empty();
+    }
+
+    default java.util.Map<String, Long> metrics() {
+        return java.util.Map.of();
+    }
+
+    default void close() {
+    }
 }
@@ -0,0 +1,113 @@
+package com.company.scopehandler.api.services;
+
+import java.util.Arrays;
+
+public final class AdaptiveConcurrencyLimiter {
+    private static final int MIN_WINDOW = 20;
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double GROWTH_TOLERANCE = 1.25;
+    private static final double SPIKE_TOLERANCE = 2.0;
+    private static final double BASELINE_DRIFT = 1.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final BatchExecutionLogger logger;
+    private final Object lock = new Object();
+    private final long[] samples;
+    private int limit;
+    private int inFlight;
+    private int sampleCount;
+    private int cooldown;
+    private long baselineP90Nanos = -1;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit, BatchExecutionLogger logger) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.logger = logger;
+        this.samples = new long[Math.max(MIN_WINDOW, this.maxLimit)];
+    }
+
+    public void acquire() throws InterruptedException {
+        synchronized (lock) {
+            while (inFlight >= limit) {
+                lock.wait();
+            }
+            inFlight++;
+        }
+    }
+
+    public void release(long latencyNanos, boolean overloaded) {
+        synchronized (lock) {
+            inFlight--;
+            if (cooldown > 0) {
+                // samples from requests started before the last cut say nothing about the new limit
+                cooldown--;
+                lock.notifyAll();
+                return;
+            }
+            if (overloaded) {
+                decrease("sobrecarga", percentile90());
+                lock.notifyAll();
+                return;
+            }
+            samples[sampleCount++] = latencyNanos;
+            if (sampleCount >= Math.min(samples.length, Math.max(MIN_WINDOW, limit))) {
+                evaluateWindow();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    public int getLimit() {
+        synchronized (lock) {
+            return limit;
+        }
+    }
+
+    private void evaluateWindow() {
+        long p90 = percentile90();
+        sampleCount = 0;
+        if (baselineP90Nanos < 0) {
+            baselineP90Nanos = p90;
+            return;
+        }
+        if (p90 > baselineP90Nanos * SPIKE_TOLERANCE) {
+            decrease("latencia", p90);
+            return;
+        }
+        if (p90 <= baselineP90Nanos * GROWTH_TOLERANCE && limit < maxLimit) {
+            changeLimit(limit + 1, "p90 estavel", p90);
+        }
+        baselineP90Nanos = Math.min(p90, (long) (baselineP90Nanos * BASELINE_DRIFT));
+    }
+
+    private void decrease(String reason, long p90) {
+        int next = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+        sampleCount = 0;
+        cooldown = inFlight;
+        // the first window after the cooldown re-seeds the baseline, so a lasting latency shift is not cut again and again
+        baselineP90Nanos = -1;
+        if (next != limit) {
+            changeLimit(next, reason, p90);
+        }
+    }
+
+    private void changeLimit(int next, String reason, long p90Nanos) {
+        int previous = limit;
+        limit = next;
+        if (logger != null) {
+            logger.logLimitChange(previous, next, reason, p90Nanos / 1_000_000);
+        }
+    }
+
+    private long percentile90() {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        long[] window = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(window);
+        int index = (int) Math.ceil(window.length * 0.9) - 1;
+        return window[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.scopehandler.api.services;
+
+public record AdaptiveConcurrencySettings(boolean enabled, int minThreads, int initialThreads) {
+    public static AdaptiveConcurrencySettings disabled() {
+        return new AdaptiveConcurrencySettings(false, 1, 1);
+    }
+}
@@ -0,0 +1,180 @@
+package com.company.scopehandler.api.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public final class AffinityTaskExecutor {
+    private static final long POLL_MS = 10;
+    private final int queueCapacity;
+
+    public AffinityTaskExecutor() {
+        this(4);
+    }
+
+    public AffinityTaskExecutor(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public <T> void execute(Iterable<Group<T>> groups,
+                            int maxThreads,
+                            Consumer<T> onResult,
+                            Consumer<Throwable> onError) {
+        if (groups == null) {
+            return;
+        }
+        int workers = Math.max(1, maxThreads);
+        List<LinkedBlockingDeque<Group<T>>> queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            queues.add(new LinkedBlockingDeque<>(queueCapacity));
+        }
+        BlockingQueue<Completion<T>> completions = new LinkedBlockingQueue<>();
+        AtomicBoolean dispatchDone = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new NamedThreadFactory("affinity-"));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(new Worker<>(i, queues, completions, dispatchDone));
+        }
+
+        long expected = 0;
+        long delivered = 0;
+        try {
+            for (Group<T> group : groups) {
+                if (group.tasks().isEmpty()) {
+                    continue;
+                }
+                LinkedBlockingDeque<Group<T>> target = queues.get(Math.floorMod(group.key().hashCode(), workers));
+                while (!target.offer(group, POLL_MS, TimeUnit.MILLISECONDS)) {
+                    delivered += drainAvailable(completions, onResult, onError);
+                }
+                expected += group.tasks().size();
+                delivered += drainAvailable(completions, onResult, onError);
+            }
+            dispatchDone.set(true);
+            while (delivered < expected) {
+                Completion<T> completion = completions.take();
+                deliver(completion, onResult, onError);
+                delivered++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (onError != null) {
+                onError.accept(e);
+            }
+        } finally {
+            dispatchDone.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> int drainAvailable(BlockingQueue<Completion<T>> completions,
+                                   Consumer<T> onResult,
+                                   Consumer<Throwable> onError) {
+        int drained = 0;
+        Completion<T> completion;
+        while ((completion = completions.poll()) != null) {
+            deliver(completion, onResult, onError);
+            drained++;
+        }
+        return drained;
+    }
+
+    private <T> void deliver(Completion<T> completion, Consumer<T> onResult, Consumer<Throwable> onError) {
+        if (completion.error() != null) {
+            if (onError != null) {
+                onError.accept(completion.error());
+            }
+            return;
+        }
+        if (completion.result() != null && onResult != null) {
+            onResult.accept(completion.result());
+        }
+    }
+
+    public record Group<T>(String key, List<Callable<T>> tasks) {
+    }
+
+    private record Completion<T>(T result, Throwable error) {
+    }
+
+    private static final class Worker<T> implements Runnable {
+        private final int index;
+        private final List<LinkedBlockingDeque<Group<T>>> queues;
+        private final BlockingQueue<Completion<T>> completions;
+        private final AtomicBoolean dispatchDone;
+
+        private Worker(int index,
+                       List<LinkedBlockingDeque<Group<T>>> queues,
+                       BlockingQueue<Completion<T>> completions,
+                       AtomicBoolean dispatchDone) {
+            this.index = index;
+            this.queues = queues;
+            this.completions = completions;
+            this.dispatchDone = dispatchDone;
+        }
+
+        @Override
+        public void run() {
+            LinkedBlockingDeque<Group<T>> own = queues.get(index);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Group<T> group = own.pollFirst();
+                    if (group == null) {
+                        group = steal();
+                    }
+                    if (group == null) {
+                        if (dispatchDone.get() && allEmpty()) {
+                            return;
+                        }
+                        group = own.pollFirst(POLL_MS, TimeUnit.MILLISECONDS);
+                        if (group == null) {
+                            continue;
+                        }
+                    }
+                    runGroup(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private Group<T> steal() {
+            // whole groups are stolen from the tail, so a client never has its scopes split across workers
+            for (int offset = 1; offset < queues.size(); offset++) {
+                Group<T> stolen = queues.get((index + offset) % queues.size()).pollLast();
+                if (stolen != null) {
+                    return stolen;
+                }
+            }
+            return null;
+        }
+
+        private boolean allEmpty() {
+            for (LinkedBlockingDeque<Group<T>> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void runGroup(Group<T> group) throws InterruptedException {
+            for (Callable<T> task : group.tasks()) {
+                try {
+                    completions.put(new Completion<>(task.call(), null));
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    completions.put(new Completion<>(null, e));
+                }
+            }
+        }
+    }
+}
@@ -27,7 +27,7 @@ public final class AuditService implements AutoCloseable {
             this.filePath = auditDir.resolve(fileName);
             this.writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8,
                     StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            writer.write("timestamp,operationId,sequence,threadIndex,mode,clientId,scope,status,durationMs,thread,message");
+            writer.write("timestamp,operationId,sequence,threadIndex,mode,clientId,scope,status,durationMs,thread,message,statusCode,retries");
             writer.newLine();
             writer.flush();
         } catch (IOException e) {
@@ -77,7 +77,9 @@ public final class AuditService implements AutoCloseable {
                 escape(result.getStatus().name()),
                 escape(Long.toString(result.getDurationMs())),
                 escape(result.getThreadName()),
-                escape(result.getMessage())
+                escape(result.getMessage()),
+                escape(Integer.toString(result.getStatusCode())),
+                escape(Integer.toString(result.getRetries()))
         );
     }
 
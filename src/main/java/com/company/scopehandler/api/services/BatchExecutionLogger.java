@@ -43,6 +43,13 @@ public final class BatchExecutionLogger {
         System.out.flush();
     }
 
+    public void logLimitChange(int previous, int next, String reason, long p90Ms) {
+        System.out.println("Limite de concorrencia: " + previous + " -> " + next
+                + " | motivo=" + reason
+                + " | p90=" + p90Ms + "ms");
+        System.out.flush();
+    }
+
     public void logThreadSummary(BatchExecutionState state) {
         Map<String, AtomicLong> threadOps = state.getThreadOps();
         if (threadOps.isEmpty()) {
@@ -65,7 +72,8 @@ public final class BatchExecutionLogger {
     }
 
     public void logOperationStatus(OperationResult result) {
-        if (!debugEnabled && result.getMode() != Mode.LIST && result.getMode() != Mode.FIND) {
+        if (!debugEnabled && result.getMode() != Mode.LIST && result.getMode() != Mode.FIND
+                && result.getMode() != Mode.WARMUP) {
             return;
         }
         System.out.println("Operacao #" + result.getSequence()
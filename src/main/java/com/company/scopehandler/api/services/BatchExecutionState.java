@@ -23,6 +23,10 @@ public final class BatchExecutionState {
     }
 
     public OperationResult enrich(OperationResult base, long sequence) {
+        return enrich(base, sequence, base.getPlanIndex());
+    }
+
+    public OperationResult enrich(OperationResult base, long sequence, long planIndex) {
         long threadIndex = threadCounter.get() + 1;
         threadCounter.set(threadIndex);
         String operationId = java.util.UUID.randomUUID().toString();
@@ -30,7 +34,7 @@ public final class BatchExecutionState {
         threadOps.computeIfAbsent(threadName, k -> new AtomicLong(0)).incrementAndGet();
         lastThreadName.set(threadName);
         lastSequence.set(sequence);
-        return OperationResult.withMeta(base, operationId, sequence, threadIndex);
+        return OperationResult.withMeta(base, operationId, sequence, threadIndex, planIndex);
     }
 
     public void updateCounters(OperationResult result) {
@@ -4,6 +4,11 @@ import com.company.scopehandler.api.cache.ExecutionCache;
 import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationResult;
 import com.company.scopehandler.api.strategy.ModeStrategy;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public final class BatchExecutionSupport {
     private BatchExecutionSupport() {
@@ -14,24 +19,115 @@ public final class BatchExecutionSupport {
                                             Operation operation,
                                             BatchExecutionState state) {
         if (cache != null && cache.isExecuted(strategy.getMode(), operation.getClientId(), operation.getScope())) {
-            OperationResult skipped = OperationResultFactory.skipped(
-                    strategy.getMode(),
-                    operation.getClientId(),
-                    operation.getScope(),
-                    "skipped (cached)"
-            );
-            return state.enrich(skipped, state.nextSequence());
+            return cachedSkip(strategy, operation, state);
         }
         return safeExecute(strategy, operation, state);
     }
 
+    public static Mono<OperationResult> maybeSkipAsync(ExecutionCache cache,
+                                                       ModeStrategy strategy,
+                                                       Operation operation,
+                                                       BatchExecutionState state) {
+        if (cache != null && cache.isExecuted(strategy.getMode(), operation.getClientId(), operation.getScope())) {
+            return Mono.fromSupplier(() -> cachedSkip(strategy, operation, state));
+        }
+        return Mono.defer(() -> {
+            long opSeq = state.nextSequence();
+            return strategy.executeAsync(operation)
+                    .map(base -> state.enrich(base, opSeq, operation.getPlanIndex()))
+                    .onErrorResume(e -> Mono.just(state.enrich(OperationResultFactory.failure(
+                            "unexpected error: " + e.getMessage(),
+                            strategy.getMode(),
+                            operation.getClientId(),
+                            operation.getScope()
+                    ), opSeq, operation.getPlanIndex())));
+        });
+    }
+
+    public static List<OperationResult> maybeSkipAll(ExecutionCache cache,
+                                                     ModeStrategy strategy,
+                                                     List<Operation> operations,
+                                                     BatchExecutionState state) {
+        OperationResult[] results = new OperationResult[operations.size()];
+        List<Operation> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            if (cache != null && cache.isExecuted(strategy.getMode(), operation.getClientId(), operation.getScope())) {
+                results[i] = cachedSkip(strategy, operation, state);
+            } else {
+                pending.add(operation);
+                pendingIndexes.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        List<OperationResult> executed;
+        String error = "no result returned for operation";
+        try {
+            executed = strategy.executeAll(pending);
+            if (executed == null) {
+                executed = List.of();
+            }
+        } catch (Exception e) {
+            executed = List.of();
+            error = "unexpected error: " + e.getMessage();
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            OperationResult result = i < executed.size() ? executed.get(i) : null;
+            results[index] = result != null
+                    ? state.enrich(result, state.nextSequence(), operations.get(index).getPlanIndex())
+                    : failure(strategy, operations.get(index), state, error);
+        }
+        return Arrays.asList(results);
+    }
+
+    public static List<OperationResult> failAll(ModeStrategy strategy,
+                                                List<Operation> operations,
+                                                BatchExecutionState state,
+                                                String message) {
+        // one FAIL per pair, so counters, audit and checkpoint still see every operation of the group
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            results.add(failure(strategy, operation, state, message));
+        }
+        return results;
+    }
+
+    public static OperationResult failure(ModeStrategy strategy,
+                                          Operation operation,
+                                          BatchExecutionState state,
+                                          String message) {
+        OperationResult base = OperationResultFactory.failure(
+                message,
+                strategy.getMode(),
+                operation.getClientId(),
+                operation.getScope()
+        );
+        return state.enrich(base, state.nextSequence(), operation.getPlanIndex());
+    }
+
+    private static OperationResult cachedSkip(ModeStrategy strategy,
+                                              Operation operation,
+                                              BatchExecutionState state) {
+        OperationResult skipped = OperationResultFactory.skipped(
+                strategy.getMode(),
+                operation.getClientId(),
+                operation.getScope(),
+                "skipped (cached)"
+        );
+        return state.enrich(skipped, state.nextSequence(), operation.getPlanIndex());
+    }
+
     private static OperationResult safeExecute(ModeStrategy strategy,
                                                Operation operation,
                                                BatchExecutionState state) {
         long opSeq = state.nextSequence();
         try {
             OperationResult base = strategy.execute(operation);
-            return state.enrich(base, opSeq);
+            return state.enrich(base, opSeq, operation.getPlanIndex());
         } catch (Exception e) {
             OperationResult base = OperationResultFactory.failure(
                     "unexpected error: " + e.getMessage(),
@@ -39,7 +135,7 @@ public final class BatchExecutionSupport {
                     operation.getClientId(),
                     operation.getScope()
             );
-            return state.enrich(base, opSeq);
+            return state.enrich(base, opSeq, operation.getPlanIndex());
         }
     }
 }
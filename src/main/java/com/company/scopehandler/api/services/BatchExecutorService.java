@@ -1,12 +1,38 @@
 package com.company.scopehandler.api.services;
 
+import com.company.scopehandler.api.domain.ExecutorMode;
 import com.company.scopehandler.api.strategy.ModeStrategy;
 import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.cache.PlanCheckpoint;
 
 public final class BatchExecutorService {
-    private final TaskExecutorService taskExecutor = new TaskExecutorService();
     private final BatchSequentialExecutorService sequentialExecutor = new BatchSequentialExecutorService();
-    private final BatchParallelExecutorService parallelExecutor = new BatchParallelExecutorService(taskExecutor);
+    private final BatchReactiveExecutorService reactiveExecutor = new BatchReactiveExecutorService();
+    private final BatchParallelExecutorService parallelExecutor;
+    private final BatchGroupedExecutorService groupedExecutor;
+    private final ExecutorMode executorMode;
+    private final boolean groupByClient;
+
+    public BatchExecutorService() {
+        this(new TaskExecutorService());
+    }
+
+    public BatchExecutorService(TaskExecutorService taskExecutor) {
+        this(taskExecutor, AdaptiveConcurrencySettings.disabled());
+    }
+
+    public BatchExecutorService(TaskExecutorService taskExecutor, AdaptiveConcurrencySettings adaptiveSettings) {
+        this(taskExecutor, adaptiveSettings, false);
+    }
+
+    public BatchExecutorService(TaskExecutorService taskExecutor,
+                                AdaptiveConcurrencySettings adaptiveSettings,
+                                boolean groupByClient) {
+        this.parallelExecutor = new BatchParallelExecutorService(taskExecutor, adaptiveSettings);
+        this.groupedExecutor = new BatchGroupedExecutorService(taskExecutor);
+        this.executorMode = taskExecutor.getMode();
+        this.groupByClient = groupByClient;
+    }
 
     public BatchReport execute(BatchPlan plan,
                                ModeStrategy strategy,
@@ -15,14 +41,30 @@ public final class BatchExecutorService {
                                int maxThreads,
                                boolean debugEnabled,
                                ExecutionCache cache) {
+        return execute(plan, strategy, auditService, threshold, maxThreads, debugEnabled, cache, null);
+    }
+
+    public BatchReport execute(BatchPlan plan,
+                               ModeStrategy strategy,
+                               AuditService auditService,
+                               int threshold,
+                               int maxThreads,
+                               boolean debugEnabled,
+                               ExecutionCache cache,
+                               PlanCheckpoint checkpoint) {
         BatchExecutionState state = new BatchExecutionState();
         BatchExecutionLogger logger = new BatchExecutionLogger(debugEnabled);
         long total = plan.getTotalOperations();
         BatchReport report = new BatchReport();
-        BatchResultHandler handler = new BatchResultHandler(state, logger, auditService, report, cache);
+        BatchResultHandler handler = new BatchResultHandler(state, logger, auditService, report, cache, checkpoint);
         long startNano = System.nanoTime();
 
-        if (total >= threshold) {
+        if (groupByClient) {
+            int threads = total >= threshold ? maxThreads : 1;
+            groupedExecutor.execute(plan, strategy, handler, logger, threads, cache, startNano, state);
+        } else if (total >= threshold && executorMode == ExecutorMode.REACTIVE) {
+            reactiveExecutor.execute(plan, strategy, handler, logger, maxThreads, cache, startNano, state);
+        } else if (total >= threshold) {
             parallelExecutor.execute(plan, strategy, handler, logger, maxThreads, cache, startNano, state);
         } else {
             sequentialExecutor.execute(plan, strategy, handler, logger, cache, startNano, state);
@@ -0,0 +1,80 @@
+package com.company.scopehandler.api.services;
+
+import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.strategy.ModeStrategy;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class BatchGroupedExecutorService {
+    private final TaskExecutorService taskExecutor;
+
+    public BatchGroupedExecutorService(TaskExecutorService taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void execute(BatchPlan plan,
+                        ModeStrategy strategy,
+                        BatchResultHandler handler,
+                        BatchExecutionLogger logger,
+                        int maxThreads,
+                        ExecutionCache cache,
+                        long startNano,
+                        BatchExecutionState state) {
+        AtomicLong processedCounter = new AtomicLong(0);
+        Iterable<Callable<List<OperationResult>>> tasks =
+                new TaskIterable<>(plan.getClientGroups(), new GroupTaskFactory(cache, strategy, state));
+        Consumer<List<OperationResult>> onResult = results -> {
+            for (OperationResult result : results) {
+                handler.handle(result);
+                long current = processedCounter.incrementAndGet();
+                logger.logProgress(current, plan.getTotalOperations(), startNano, false, state);
+            }
+        };
+        // group failures come back as per-pair results above; only an interrupted wait, which has no group, ends here
+        Consumer<Throwable> onError = error -> {
+            OperationResult result;
+            if (error instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                result = OperationResultFactory.failure("execution interrupted", strategy.getMode());
+            } else {
+                result = OperationResultFactory.failure("execution failure: " + error.getMessage(), strategy.getMode());
+            }
+            handler.handle(result);
+            long current = processedCounter.incrementAndGet();
+            logger.logProgress(current, plan.getTotalOperations(), startNano, false, state);
+        };
+
+        taskExecutor.execute(tasks, maxThreads, onResult, onError);
+
+        logger.logProgress(processedCounter.get(), plan.getTotalOperations(), startNano, true, state);
+    }
+
+    private static final class GroupTaskFactory implements Function<List<Operation>, Callable<List<OperationResult>>> {
+        private final ExecutionCache cache;
+        private final ModeStrategy strategy;
+        private final BatchExecutionState state;
+
+        private GroupTaskFactory(ExecutionCache cache, ModeStrategy strategy, BatchExecutionState state) {
+            this.cache = cache;
+            this.strategy = strategy;
+            this.state = state;
+        }
+
+        @Override
+        public Callable<List<OperationResult>> apply(List<Operation> operations) {
+            return () -> {
+                try {
+                    return BatchExecutionSupport.maybeSkipAll(cache, strategy, operations, state);
+                } catch (RuntimeException e) {
+                    return BatchExecutionSupport.failAll(strategy, operations, state, "execution failure: " + e.getMessage());
+                }
+            };
+        }
+    }
+}
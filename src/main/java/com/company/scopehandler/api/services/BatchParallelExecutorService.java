@@ -1,20 +1,32 @@
 package com.company.scopehandler.api.services;
 
 import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.domain.ExecutorMode;
 import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationResult;
 import com.company.scopehandler.api.strategy.ModeStrategy;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public final class BatchParallelExecutorService {
     private final TaskExecutorService taskExecutor;
+    private final AdaptiveConcurrencySettings adaptiveSettings;
+    private final AffinityTaskExecutor affinityExecutor = new AffinityTaskExecutor();
 
     public BatchParallelExecutorService(TaskExecutorService taskExecutor) {
+        this(taskExecutor, AdaptiveConcurrencySettings.disabled());
+    }
+
+    public BatchParallelExecutorService(TaskExecutorService taskExecutor, AdaptiveConcurrencySettings adaptiveSettings) {
         this.taskExecutor = taskExecutor;
+        this.adaptiveSettings = adaptiveSettings;
     }
 
     public void execute(BatchPlan plan,
@@ -27,51 +39,107 @@ public final class BatchParallelExecutorService {
                         BatchExecutionState state) {
         AtomicLong processedCounter = new AtomicLong(0);
 
-        Iterable<Callable<OperationResult>> tasks = buildTasks(plan, strategy, cache, state);
         Consumer<OperationResult> onResult = new ResultConsumer(handler, logger, plan, startNano, state, processedCounter);
         Consumer<Throwable> onError = new ErrorConsumer(handler, logger, plan, startNano, state, processedCounter, strategy);
 
-        taskExecutor.execute(tasks, maxThreads, onResult, onError);
+        AdaptiveConcurrencyLimiter limiter = null;
+        if (adaptiveSettings.enabled()) {
+            limiter = new AdaptiveConcurrencyLimiter(
+                    adaptiveSettings.minThreads(),
+                    adaptiveSettings.initialThreads(),
+                    maxThreads,
+                    logger
+            );
+        }
+        TaskFactory taskFactory = new TaskFactory(cache, strategy, state, limiter);
+        if (taskExecutor.getMode() == ExecutorMode.AFFINITY) {
+            // the workers stay pinned per client; the limiter only caps how many of them call the AS at once
+            affinityExecutor.execute(new GroupIterable(plan.getClientGroups(), taskFactory), maxThreads, onResult, onError);
+        } else {
+            taskExecutor.execute(new TaskIterable<>(plan.getOperations(), taskFactory), maxThreads, onResult, onError);
+        }
 
         long processed = processedCounter.get();
         logger.logProgress(processed, plan.getTotalOperations(), startNano, true, state);
     }
 
-    private Iterable<Callable<OperationResult>> buildTasks(BatchPlan plan,
-                                                           ModeStrategy strategy,
-                                                           ExecutionCache cache,
-                                                           BatchExecutionState state) {
-        return new TaskIterable<>(plan.getOperations(), new TaskFactory(cache, strategy, state));
+    private static final class GroupIterable implements Iterable<AffinityTaskExecutor.Group<OperationResult>> {
+        private final Iterable<List<Operation>> groups;
+        private final TaskFactory taskFactory;
+
+        private GroupIterable(Iterable<List<Operation>> groups, TaskFactory taskFactory) {
+            this.groups = groups;
+            this.taskFactory = taskFactory;
+        }
+
+        @Override
+        public Iterator<AffinityTaskExecutor.Group<OperationResult>> iterator() {
+            Iterator<List<Operation>> iterator = groups.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public AffinityTaskExecutor.Group<OperationResult> next() {
+                    List<Operation> operations = iterator.next();
+                    List<Callable<OperationResult>> tasks = new ArrayList<>(operations.size());
+                    for (Operation operation : operations) {
+                        tasks.add(taskFactory.apply(operation));
+                    }
+                    return new AffinityTaskExecutor.Group<>(operations.get(0).getClientId(), tasks);
+                }
+            };
+        }
+    }
+
+    private static final class OverloadPredicate implements Predicate<OperationResult> {
+        @Override
+        public boolean test(OperationResult result) {
+            int statusCode = result.getStatusCode();
+            return statusCode == 408 || statusCode == 429 || statusCode == 503 || statusCode == 504;
+        }
     }
 
     private static final class TaskFactory implements Function<Operation, Callable<OperationResult>> {
         private final ExecutionCache cache;
         private final ModeStrategy strategy;
         private final BatchExecutionState state;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final OverloadPredicate overloaded = new OverloadPredicate();
 
-        private TaskFactory(ExecutionCache cache, ModeStrategy strategy, BatchExecutionState state) {
+        private TaskFactory(ExecutionCache cache,
+                            ModeStrategy strategy,
+                            BatchExecutionState state,
+                            AdaptiveConcurrencyLimiter limiter) {
             this.cache = cache;
             this.strategy = strategy;
             this.state = state;
+            this.limiter = limiter;
         }
 
         @Override
         public Callable<OperationResult> apply(Operation operation) {
-            return new TaskCallable(cache, strategy, operation, state);
+            Callable<OperationResult> task = () -> BatchExecutionSupport.maybeSkip(cache, strategy, operation, state);
+            if (limiter != null) {
+                task = new LimitedCallable<>(task, limiter, overloaded);
+            }
+            return new TaskCallable(task, strategy, operation, state);
         }
     }
 
     private static final class TaskCallable implements Callable<OperationResult> {
-        private final ExecutionCache cache;
+        private final Callable<OperationResult> task;
         private final ModeStrategy strategy;
         private final Operation operation;
         private final BatchExecutionState state;
 
-        private TaskCallable(ExecutionCache cache,
+        private TaskCallable(Callable<OperationResult> task,
                              ModeStrategy strategy,
                              Operation operation,
                              BatchExecutionState state) {
-            this.cache = cache;
+            this.task = task;
             this.strategy = strategy;
             this.operation = operation;
             this.state = state;
@@ -79,7 +147,15 @@ public final class BatchParallelExecutorService {
 
         @Override
         public OperationResult call() {
-            return BatchExecutionSupport.maybeSkip(cache, strategy, operation, state);
+            // failures keep the operation's planIndex, otherwise the checkpoint watermark would stall on it
+            try {
+                return task.call();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return BatchExecutionSupport.failure(strategy, operation, state, "execution interrupted");
+            } catch (Exception e) {
+                return BatchExecutionSupport.failure(strategy, operation, state, "execution failure: " + e.getMessage());
+            }
         }
     }
 
@@ -140,6 +216,7 @@ public final class BatchParallelExecutorService {
 
         @Override
         public void accept(Throwable error) {
+            // task failures come back as results; only an interrupted wait, which has no operation, ends here
             OperationResult result;
             if (error instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
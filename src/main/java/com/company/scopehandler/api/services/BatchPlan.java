@@ -2,6 +2,8 @@ package com.company.scopehandler.api.services;
 
 import com.company.scopehandler.api.domain.Operation;
 
+import java.util.List;
+
 public final class BatchPlan {
     private final Iterable<Operation> operations;
     private final long totalOperations;
@@ -15,6 +17,10 @@ public final class BatchPlan {
         return operations;
     }
 
+    public Iterable<List<Operation>> getClientGroups() {
+        return new ClientGroupIterable(operations);
+    }
+
     public long getTotalOperations() {
         return totalOperations;
     }
@@ -1,5 +1,6 @@
 package com.company.scopehandler.api.services;
 
+import com.company.scopehandler.api.cache.PlanCheckpoint;
 import com.company.scopehandler.api.domain.Operation;
 
 import java.util.Iterator;
@@ -12,23 +13,42 @@ public final class BatchPlannerService {
             throw new IllegalArgumentException("clients and scopes must not be empty");
         }
         long total = (long) clients.size() * (long) scopes.size();
-        return new BatchPlan(new OperationIterable(clients, scopes), total);
+        return new BatchPlan(new OperationIterable(clients, scopes, 0), total);
+    }
+
+    public BatchPlan plan(List<String> clients, List<String> scopes, PlanCheckpoint checkpoint) {
+        if (checkpoint == null || !checkpoint.isResumed()) {
+            return plan(clients, scopes);
+        }
+        if (clients.isEmpty() || scopes.isEmpty()) {
+            throw new IllegalArgumentException("clients and scopes must not be empty");
+        }
+        return new BatchPlan(new CheckpointOperationIterable(clients, scopes, checkpoint), checkpoint.getResumePending());
+    }
+
+    private static Operation operationAt(List<String> clients, List<String> scopes, long planIndex) {
+        int clientIndex = (int) (planIndex / scopes.size());
+        int scopeIndex = (int) (planIndex % scopes.size());
+        return new Operation(clients.get(clientIndex), scopes.get(scopeIndex), planIndex);
     }
 
     private static final class OperationIterable implements Iterable<Operation> {
         private final List<String> clients;
         private final List<String> scopes;
+        private final long startIndex;
 
-        private OperationIterable(List<String> clients, List<String> scopes) {
+        private OperationIterable(List<String> clients, List<String> scopes, long startIndex) {
             this.clients = clients;
             this.scopes = scopes;
+            this.startIndex = startIndex;
         }
 
         @Override
         public Iterator<Operation> iterator() {
             return new Iterator<>() {
-                private int clientIndex = 0;
-                private int scopeIndex = 0;
+                private int clientIndex = (int) (startIndex / scopes.size());
+                private int scopeIndex = (int) (startIndex % scopes.size());
+                private long planIndex = startIndex;
 
                 @Override
                 public boolean hasNext() {
@@ -40,7 +60,7 @@ public final class BatchPlannerService {
                     if (!hasNext()) {
                         throw new NoSuchElementException();
                     }
-                    Operation op = new Operation(clients.get(clientIndex), scopes.get(scopeIndex));
+                    Operation op = new Operation(clients.get(clientIndex), scopes.get(scopeIndex), planIndex++);
                     scopeIndex++;
                     if (scopeIndex >= scopes.size()) {
                         scopeIndex = 0;
@@ -51,4 +71,54 @@ public final class BatchPlannerService {
             };
         }
     }
+
+    private static final class CheckpointOperationIterable implements Iterable<Operation> {
+        private final List<String> clients;
+        private final List<String> scopes;
+        private final PlanCheckpoint checkpoint;
+
+        private CheckpointOperationIterable(List<String> clients, List<String> scopes, PlanCheckpoint checkpoint) {
+            this.clients = clients;
+            this.scopes = scopes;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public Iterator<Operation> iterator() {
+            Iterator<Long> failed = checkpoint.getResumeFailed().iterator();
+            // jumps straight to the watermark; only the out-of-order tail above it is checked one by one
+            Iterator<Operation> remaining = new OperationIterable(clients, scopes, checkpoint.getResumeWatermark()).iterator();
+            return new Iterator<>() {
+                private Operation next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Operation next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Operation current = next;
+                    next = advance();
+                    return current;
+                }
+
+                private Operation advance() {
+                    if (failed.hasNext()) {
+                        return operationAt(clients, scopes, failed.next());
+                    }
+                    while (remaining.hasNext()) {
+                        Operation operation = remaining.next();
+                        if (!checkpoint.isCompletedOnResume(operation.getPlanIndex())) {
+                            return operation;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.company.scopehandler.api.services;
+
+import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.strategy.ModeStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class BatchReactiveExecutorService {
+    public void execute(BatchPlan plan,
+                        ModeStrategy strategy,
+                        BatchResultHandler handler,
+                        BatchExecutionLogger logger,
+                        int concurrency,
+                        ExecutionCache cache,
+                        long startNano,
+                        BatchExecutionState state) {
+        AtomicLong processedCounter = new AtomicLong(0);
+
+        // flatMap serializes onNext signals, so the handler still sees one result at a time in arrival order.
+        Flux.fromIterable(plan.getOperations())
+                .flatMap(operation -> BatchExecutionSupport.maybeSkipAsync(cache, strategy, operation, state),
+                        Math.max(1, concurrency))
+                .doOnNext(result -> onResult(result, handler, logger, plan, startNano, state, processedCounter))
+                .blockLast();
+
+        long processed = processedCounter.get();
+        logger.logProgress(processed, plan.getTotalOperations(), startNano, true, state);
+    }
+
+    private void onResult(OperationResult result,
+                          BatchResultHandler handler,
+                          BatchExecutionLogger logger,
+                          BatchPlan plan,
+                          long startNano,
+                          BatchExecutionState state,
+                          AtomicLong processedCounter) {
+        handler.handle(result);
+        long current = processedCounter.incrementAndGet();
+        logger.logProgress(current, plan.getTotalOperations(), startNano, false, state);
+    }
+}
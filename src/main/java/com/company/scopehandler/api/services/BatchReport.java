@@ -5,7 +5,9 @@ import com.company.scopehandler.api.domain.OperationResult;
 import java.time.Instant;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class BatchReport {
     private final Instant startedAt;
@@ -15,6 +17,7 @@ public final class BatchReport {
     private long failureCount;
     private long skipCount;
     private final List<String> sampleErrors = new ArrayList<>();
+    private final Map<String, Long> metrics = new LinkedHashMap<>();
 
     public BatchReport() {
         this.startedAt = Instant.now();
@@ -36,6 +39,12 @@ public final class BatchReport {
         }
     }
 
+    public void putMetrics(Map<String, Long> values) {
+        if (values != null) {
+            metrics.putAll(values);
+        }
+    }
+
     public void finish() {
         this.finishedAt = Instant.now();
     }
@@ -88,4 +97,8 @@ public final class BatchReport {
     public List<String> getSampleErrors() {
         return sampleErrors;
     }
+
+    public Map<String, Long> getMetrics() {
+        return metrics;
+    }
 }
@@ -1,6 +1,7 @@
 package com.company.scopehandler.api.services;
 
 import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.cache.PlanCheckpoint;
 import com.company.scopehandler.api.domain.OperationResult;
 import com.company.scopehandler.api.domain.OperationStatus;
 
@@ -10,17 +11,28 @@ public final class BatchResultHandler {
     private final AuditService auditService;
     private final BatchReport report;
     private final ExecutionCache cache;
+    private final PlanCheckpoint checkpoint;
 
     public BatchResultHandler(BatchExecutionState state,
                               BatchExecutionLogger logger,
                               AuditService auditService,
                               BatchReport report,
                               ExecutionCache cache) {
+        this(state, logger, auditService, report, cache, null);
+    }
+
+    public BatchResultHandler(BatchExecutionState state,
+                              BatchExecutionLogger logger,
+                              AuditService auditService,
+                              BatchReport report,
+                              ExecutionCache cache,
+                              PlanCheckpoint checkpoint) {
         this.state = state;
         this.logger = logger;
         this.auditService = auditService;
         this.report = report;
         this.cache = cache;
+        this.checkpoint = checkpoint;
     }
 
     public void handle(OperationResult result) {
@@ -29,7 +41,10 @@ public final class BatchResultHandler {
         auditService.record(result);
         report.add(result);
         if (cache != null && result.getStatus() == OperationStatus.OK) {
-            cache.record(result.getMode(), result.getClientId(), result.getScope());
+            cache.record(result.getMode(), result.getClientId(), result.getScope(), result.getPlanIndex());
+        }
+        if (checkpoint != null) {
+            checkpoint.complete(result.getPlanIndex(), result.getStatus() == OperationStatus.FAIL);
         }
     }
 
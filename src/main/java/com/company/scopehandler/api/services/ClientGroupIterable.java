@@ -0,0 +1,56 @@
+package com.company.scopehandler.api.services;
+
+import com.company.scopehandler.api.domain.Operation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+public final class ClientGroupIterable implements Iterable<List<Operation>> {
+    private final Iterable<Operation> source;
+
+    public ClientGroupIterable(Iterable<Operation> source) {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    @Override
+    public Iterator<List<Operation>> iterator() {
+        return new ClientGroupIterator(source.iterator());
+    }
+
+    private static final class ClientGroupIterator implements Iterator<List<Operation>> {
+        private final Iterator<Operation> iterator;
+        private Operation lookahead;
+
+        private ClientGroupIterator(Iterator<Operation> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return lookahead != null || iterator.hasNext();
+        }
+
+        @Override
+        public List<Operation> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Operation first = lookahead != null ? lookahead : iterator.next();
+            lookahead = null;
+            List<Operation> group = new ArrayList<>();
+            group.add(first);
+            while (iterator.hasNext()) {
+                Operation candidate = iterator.next();
+                if (!candidate.getClientId().equals(first.getClientId())) {
+                    lookahead = candidate;
+                    break;
+                }
+                group.add(candidate);
+            }
+            return group;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.company.scopehandler.api.services;
+
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+
+final class LimitedCallable<T> implements Callable<T> {
+    private final Callable<T> task;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Predicate<T> overloaded;
+
+    LimitedCallable(Callable<T> task, AdaptiveConcurrencyLimiter limiter, Predicate<T> overloaded) {
+        this.task = task;
+        this.limiter = limiter;
+        this.overloaded = overloaded;
+    }
+
+    @Override
+    public T call() throws Exception {
+        limiter.acquire();
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = task.call();
+            return result;
+        } finally {
+            boolean overload = result != null && overloaded != null && overloaded.test(result);
+            limiter.release(System.nanoTime() - start, overload);
+        }
+    }
+}
@@ -35,6 +35,10 @@ public final class ReportService {
         sb.append("Skipped: ").append(report.getSkipCount()).append("\n");
         sb.append("Duration: ").append(DurationFormatter.formatSeconds(report.getDurationSeconds())).append("\n");
         sb.append("AvgMsPerOp: ").append(String.format(java.util.Locale.ROOT, "%.2f", report.getAverageMsPerOperation())).append("\n");
+        if (!report.getMetrics().isEmpty()) {
+            sb.append("\nMetrics:\n");
+            report.getMetrics().forEach((name, value) -> sb.append("- ").append(name).append("=").append(value).append("\n"));
+        }
         if (!report.getSampleErrors().isEmpty()) {
             sb.append("\nSample errors:\n");
             for (String error : report.getSampleErrors()) {
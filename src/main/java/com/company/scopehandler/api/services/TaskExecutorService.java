@@ -1,17 +1,54 @@
 package com.company.scopehandler.api.services;
 
-import java.util.List;
+import com.company.scopehandler.api.domain.ExecutorMode;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public final class TaskExecutorService {
+    private final ExecutorMode mode;
+    private final int maxInFlight;
+
+    public TaskExecutorService() {
+        this(ExecutorMode.PLATFORM);
+    }
+
+    public TaskExecutorService(ExecutorMode mode) {
+        this(mode, 0);
+    }
+
+    public TaskExecutorService(ExecutorMode mode, int maxInFlight) {
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.maxInFlight = maxInFlight;
+    }
+
+    public ExecutorMode getMode() {
+        return mode;
+    }
+
+    public <T> void execute(Iterable<Callable<T>> tasks,
+                            int maxThreads,
+                            Consumer<T> onResult,
+                            Consumer<Throwable> onError) {
+        execute(tasks, maxThreads, null, null, onResult, onError);
+    }
+
     public <T> void execute(Iterable<Callable<T>> tasks,
                             int maxThreads,
+                            AdaptiveConcurrencyLimiter limiter,
+                            Predicate<T> overloaded,
                             Consumer<T> onResult,
                             Consumer<Throwable> onError) {
         if (tasks == null) {
@@ -34,34 +71,135 @@ public final class TaskExecutorService {
             return;
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("worker-"));
+        ExecutorService executor;
+        Semaphore permits = null;
+        Queue<Integer> slots = null;
+        if (mode == ExecutorMode.VIRTUAL) {
+            executor = newVirtualThreadExecutor();
+            permits = new Semaphore(threads);
+            slots = new ConcurrentLinkedQueue<>();
+            for (int i = 1; i <= threads; i++) {
+                slots.offer(i);
+            }
+        } else {
+            executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("worker-"));
+        }
         CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
-        int submitted = 0;
+        int window = resolveWindow(threads);
+        int pending = 0;
         try {
-            for (Callable<T> task : tasks) {
-                completionService.submit(task);
-                submitted++;
-            }
-            for (int i = 0; i < submitted; i++) {
-                try {
-                    T result = completionService.take().get();
-                    if (result != null && onResult != null) {
-                        onResult.accept(result);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    if (onError != null) {
-                        onError.accept(e);
-                    }
-                } catch (ExecutionException e) {
-                    Throwable cause = e.getCause() != null ? e.getCause() : e;
-                    if (onError != null) {
-                        onError.accept(cause);
-                    }
+            Iterator<Callable<T>> iterator = tasks.iterator();
+            while (true) {
+                while (pending >= window) {
+                    awaitNext(completionService, onResult, onError);
+                    pending--;
+                }
+                pending -= drainCompleted(completionService, onResult, onError);
+                if (Thread.currentThread().isInterrupted() || !iterator.hasNext()) {
+                    break;
+                }
+                Callable<T> task = iterator.next();
+                if (limiter != null) {
+                    task = new LimitedCallable<>(task, limiter, overloaded);
                 }
+                completionService.submit(permits == null ? task : new SlotCallable<>(task, permits, slots));
+                pending++;
+            }
+            while (pending > 0) {
+                awaitNext(completionService, onResult, onError);
+                pending--;
             }
         } finally {
             executor.shutdownNow();
         }
     }
+
+    private int resolveWindow(int threads) {
+        if (maxInFlight <= 0) {
+            return threads * 2;
+        }
+        return Math.max(threads, maxInFlight);
+    }
+
+    private <T> int drainCompleted(CompletionService<T> completionService,
+                                   Consumer<T> onResult,
+                                   Consumer<Throwable> onError) {
+        int drained = 0;
+        Future<T> future;
+        while ((future = completionService.poll()) != null) {
+            deliver(future, onResult, onError);
+            drained++;
+        }
+        return drained;
+    }
+
+    private <T> void awaitNext(CompletionService<T> completionService,
+                               Consumer<T> onResult,
+                               Consumer<Throwable> onError) {
+        try {
+            deliver(completionService.take(), onResult, onError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (onError != null) {
+                onError.accept(e);
+            }
+        }
+    }
+
+    private <T> void deliver(Future<T> future, Consumer<T> onResult, Consumer<Throwable> onError) {
+        try {
+            T result = future.get();
+            if (result != null && onResult != null) {
+                onResult.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (onError != null) {
+                onError.accept(e);
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (onError != null) {
+                onError.accept(cause);
+            }
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Virtual threads are only available from Java 21; the build still targets Java 17.
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return (ExecutorService) executor;
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads indisponiveis neste runtime (Java "
+                    + Runtime.version().feature() + "); usando threads de plataforma sob demanda.");
+            return Executors.newCachedThreadPool(new NamedThreadFactory("vworker-"));
+        }
+    }
+
+    private static final class SlotCallable<T> implements Callable<T> {
+        private final Callable<T> task;
+        private final Semaphore permits;
+        private final Queue<Integer> slots;
+
+        private SlotCallable(Callable<T> task, Semaphore permits, Queue<Integer> slots) {
+            this.task = task;
+            this.permits = permits;
+            this.slots = slots;
+        }
+
+        @Override
+        public T call() throws Exception {
+            permits.acquire();
+            Integer slot = slots.poll();
+            // Virtual threads are unnamed and short-lived, so per-thread counters follow the logical slot instead.
+            Thread.currentThread().setName("vslot-" + slot);
+            try {
+                return task.call();
+            } finally {
+                slots.offer(slot);
+                permits.release();
+            }
+        }
+    }
 }
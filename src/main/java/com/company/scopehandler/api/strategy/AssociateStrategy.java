@@ -5,6 +5,13 @@ import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationOutcome;
 import com.company.scopehandler.api.domain.OperationResult;
 import com.company.scopehandler.api.ports.AuthorizationServerService;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public final class AssociateStrategy implements ModeStrategy {
     private final AuthorizationServerService client;
@@ -23,8 +30,61 @@ public final class AssociateStrategy implements ModeStrategy {
             createOutcome = client.createScope(operation.getScope());
         }
         OperationOutcome associateOutcome = client.associateScope(operation.getClientId(), operation.getScope());
-        long duration = System.currentTimeMillis() - startedAt;
+        return toResult(operation, startedAt, System.currentTimeMillis() - startedAt, createOutcome, associateOutcome);
+    }
+
+    @Override
+    public Mono<OperationResult> executeAsync(Operation operation) {
+        return Mono.defer(() -> {
+            long startedAt = System.currentTimeMillis();
+            Mono<Optional<OperationOutcome>> create = createScope
+                    ? client.createScopeAsync(operation.getScope()).map(Optional::of)
+                    : Mono.just(Optional.empty());
+            return create.flatMap(createOutcome -> client.associateScopeAsync(operation.getClientId(), operation.getScope())
+                    .map(associateOutcome -> toResult(operation, startedAt, System.currentTimeMillis() - startedAt,
+                            createOutcome.orElse(null), associateOutcome)));
+        });
+    }
+
+    @Override
+    public List<OperationResult> executeAll(List<Operation> operations) {
+        if (operations.stream().map(Operation::getClientId).distinct().count() != 1) {
+            return ModeStrategy.super.executeAll(operations);
+        }
+        long startedAt = System.currentTimeMillis();
+        List<String> scopes = operations.stream().map(Operation::getScope).toList();
+        Map<String, OperationOutcome> createOutcomes = new HashMap<>();
+        if (createScope) {
+            for (String scope : scopes) {
+                long createStartedAt = System.currentTimeMillis();
+                OperationOutcome createOutcome = client.createScope(scope);
+                createOutcomes.put(scope, createOutcome.withTiming(createStartedAt, System.currentTimeMillis() - createStartedAt));
+            }
+        }
+        Map<String, OperationOutcome> outcomes = client.associateScopes(operations.get(0).getClientId(), scopes);
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            OperationOutcome createOutcome = createOutcomes.get(operation.getScope());
+            OperationOutcome outcome = outcomes.get(operation.getScope());
+            if (outcome == null) {
+                outcome = OperationOutcome.fail(-1, "no outcome returned for scope");
+            }
+            long pairStartedAt = outcome.isTimed() ? outcome.getStartedAtEpochMs() : startedAt;
+            long duration = outcome.isTimed() ? outcome.getDurationMs() : System.currentTimeMillis() - startedAt;
+            if (createOutcome != null) {
+                pairStartedAt = createOutcome.getStartedAtEpochMs();
+                duration += createOutcome.getDurationMs();
+            }
+            results.add(toResult(operation, pairStartedAt, duration, createOutcome, outcome));
+        }
+        return results;
+    }
 
+    private OperationResult toResult(Operation operation,
+                                     long startedAt,
+                                     long duration,
+                                     OperationOutcome createOutcome,
+                                     OperationOutcome associateOutcome) {
         String message = buildMessage(createOutcome, associateOutcome);
         return new OperationResult(
                 null,
@@ -34,6 +94,8 @@ public final class AssociateStrategy implements ModeStrategy {
                 operation.getClientId(),
                 operation.getScope(),
                 associateOutcome.getStatus(),
+                associateOutcome.getStatusCode(),
+                associateOutcome.getRetries() + (createOutcome != null ? createOutcome.getRetries() : 0),
                 message,
                 startedAt,
                 duration,
@@ -5,6 +5,11 @@ import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationOutcome;
 import com.company.scopehandler.api.domain.OperationResult;
 import com.company.scopehandler.api.ports.AuthorizationServerService;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public final class DissociateStrategy implements ModeStrategy {
     private final AuthorizationServerService client;
@@ -17,8 +22,42 @@ public final class DissociateStrategy implements ModeStrategy {
     public OperationResult execute(Operation operation) {
         long startedAt = System.currentTimeMillis();
         OperationOutcome outcome = client.dissociateScope(operation.getClientId(), operation.getScope());
-        long duration = System.currentTimeMillis() - startedAt;
+        return toResult(operation, startedAt, System.currentTimeMillis() - startedAt, outcome);
+    }
+
+    @Override
+    public Mono<OperationResult> executeAsync(Operation operation) {
+        return Mono.defer(() -> {
+            long startedAt = System.currentTimeMillis();
+            return client.dissociateScopeAsync(operation.getClientId(), operation.getScope())
+                    .map(outcome -> toResult(operation, startedAt, System.currentTimeMillis() - startedAt, outcome));
+        });
+    }
+
+    @Override
+    public List<OperationResult> executeAll(List<Operation> operations) {
+        if (operations.stream().map(Operation::getClientId).distinct().count() != 1) {
+            return ModeStrategy.super.executeAll(operations);
+        }
+        long startedAt = System.currentTimeMillis();
+        List<String> scopes = operations.stream().map(Operation::getScope).toList();
+        Map<String, OperationOutcome> outcomes = client.dissociateScopes(operations.get(0).getClientId(), scopes);
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            OperationOutcome outcome = outcomes.get(operation.getScope());
+            if (outcome == null) {
+                outcome = OperationOutcome.fail(-1, "no outcome returned for scope");
+            }
+            if (outcome.isTimed()) {
+                results.add(toResult(operation, outcome.getStartedAtEpochMs(), outcome.getDurationMs(), outcome));
+            } else {
+                results.add(toResult(operation, startedAt, System.currentTimeMillis() - startedAt, outcome));
+            }
+        }
+        return results;
+    }
 
+    private OperationResult toResult(Operation operation, long startedAt, long duration, OperationOutcome outcome) {
         return new OperationResult(
                 null,
                 0,
@@ -27,6 +66,8 @@ public final class DissociateStrategy implements ModeStrategy {
                 operation.getClientId(),
                 operation.getScope(),
                 outcome.getStatus(),
+                outcome.getStatusCode(),
+                outcome.getRetries(),
                 "dissociate[" + outcome.getStatus().name().toLowerCase() + "] " + outcome.getMessage(),
                 startedAt,
                 duration,
@@ -3,9 +3,26 @@ package com.company.scopehandler.api.strategy;
 import com.company.scopehandler.api.domain.Mode;
 import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationResult;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public interface ModeStrategy {
     OperationResult execute(Operation operation);
 
     Mode getMode();
+
+    default Mono<OperationResult> executeAsync(Operation operation) {
+        return Mono.fromCallable(() -> execute(operation)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default List<OperationResult> executeAll(List<Operation> operations) {
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            results.add(execute(operation));
+        }
+        return results;
+    }
 }
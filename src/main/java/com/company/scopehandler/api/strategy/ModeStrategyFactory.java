@@ -14,6 +14,7 @@ public final class ModeStrategyFactory {
             case REMOVE -> new DissociateStrategy(client);
             case LIST -> new ListStrategy(client);
             case FIND -> new FindStrategy(client, findScopes, matchMode);
+            case WARMUP -> new WarmupStrategy(client);
         };
     }
 }
@@ -0,0 +1,120 @@
+package com.company.scopehandler.api.strategy;
+
+import com.company.scopehandler.api.domain.Mode;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.domain.OperationStatus;
+import com.company.scopehandler.api.ports.AuthorizationServerService;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public final class ReconcilingStrategy implements ModeStrategy {
+    private final ModeStrategy delegate;
+    private final AuthorizationServerService client;
+
+    public ReconcilingStrategy(ModeStrategy delegate, AuthorizationServerService client) {
+        if (delegate.getMode() != Mode.ADD && delegate.getMode() != Mode.REMOVE) {
+            throw new IllegalArgumentException("reconcile only supports add and remove modes");
+        }
+        this.delegate = delegate;
+        this.client = client;
+    }
+
+    @Override
+    public OperationResult execute(Operation operation) {
+        long startedAt = System.currentTimeMillis();
+        Optional<OperationResult> skip = reconcile(operation, startedAt, currentScopes(operation));
+        return skip.orElseGet(() -> delegate.execute(operation));
+    }
+
+    @Override
+    public Mono<OperationResult> executeAsync(Operation operation) {
+        return Mono.defer(() -> {
+            long startedAt = System.currentTimeMillis();
+            // listCurrentScopes is served from the provider's scope cache while the entry is within the TTL
+            return Mono.fromCallable(() -> Optional.ofNullable(currentScopes(operation)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(scopes -> reconcile(operation, startedAt, scopes.orElse(null))
+                            .map(Mono::just)
+                            .orElseGet(() -> delegate.executeAsync(operation)));
+        });
+    }
+
+    @Override
+    public List<OperationResult> executeAll(List<Operation> operations) {
+        Map<String, List<String>> scopesByClient = new HashMap<>();
+        OperationResult[] results = new OperationResult[operations.size()];
+        List<Operation> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            long startedAt = System.currentTimeMillis();
+            List<String> current = scopesByClient.computeIfAbsent(operation.getClientId(), key -> currentScopes(operation));
+            Optional<OperationResult> skip = reconcile(operation, startedAt, current);
+            if (skip.isPresent()) {
+                results[i] = skip.get();
+            } else {
+                pending.add(operation);
+                pendingIndexes.add(i);
+            }
+        }
+        if (!pending.isEmpty()) {
+            List<OperationResult> executed = delegate.executeAll(pending);
+            for (int i = 0; i < executed.size(); i++) {
+                results[pendingIndexes.get(i)] = executed.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public Mode getMode() {
+        return delegate.getMode();
+    }
+
+    private List<String> currentScopes(Operation operation) {
+        try {
+            return client.listCurrentScopes(operation.getClientId());
+        } catch (RuntimeException e) {
+            // without the current state the operation simply goes to the AS
+            return null;
+        }
+    }
+
+    private Optional<OperationResult> reconcile(Operation operation, long startedAt, List<String> currentScopes) {
+        if (currentScopes == null) {
+            return Optional.empty();
+        }
+        boolean present = currentScopes.contains(operation.getScope());
+        if (getMode() == Mode.ADD && present) {
+            return Optional.of(skip(operation, startedAt, "reconcile[skip] scope already associated"));
+        }
+        if (getMode() == Mode.REMOVE && !present) {
+            return Optional.of(skip(operation, startedAt, "reconcile[skip] scope not associated"));
+        }
+        return Optional.empty();
+    }
+
+    private OperationResult skip(Operation operation, long startedAt, String message) {
+        return new OperationResult(
+                null,
+                0,
+                0,
+                getMode(),
+                operation.getClientId(),
+                operation.getScope(),
+                OperationStatus.SKIP,
+                message,
+                startedAt,
+                System.currentTimeMillis() - startedAt,
+                Thread.currentThread().getName()
+        );
+    }
+}
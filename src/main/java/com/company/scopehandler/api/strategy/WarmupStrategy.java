@@ -0,0 +1,77 @@
+package com.company.scopehandler.api.strategy;
+
+import com.company.scopehandler.api.domain.Mode;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.domain.OperationStatus;
+import com.company.scopehandler.api.domain.WarmupResult;
+import com.company.scopehandler.api.ports.AuthorizationServerService;
+
+import java.util.List;
+
+public final class WarmupStrategy implements ModeStrategy {
+    private static final int MAX_LISTED_APP_IDS = 20;
+
+    private final AuthorizationServerService client;
+
+    public WarmupStrategy(AuthorizationServerService client) {
+        this.client = client;
+    }
+
+    @Override
+    public OperationResult execute(Operation operation) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            WarmupResult result = client.warmUp();
+            long duration = System.currentTimeMillis() - startedAt;
+            // a partial sweep leaves the caches incomplete, so it must not pass as a successful warmup
+            StringBuilder message = new StringBuilder(result.hasFailures() ? "warmup[fail]" : "warmup[ok]");
+            result.getCounts().forEach((name, value) -> message.append(' ').append(name).append('=').append(value));
+            if (result.hasFailures()) {
+                message.append(" failedAppIds=").append(describe(result.getFailedAppIds()));
+            }
+            return new OperationResult(
+                    null,
+                    0,
+                    0,
+                    Mode.WARMUP,
+                    operation.getClientId(),
+                    operation.getScope(),
+                    result.hasFailures() ? OperationStatus.FAIL : OperationStatus.OK,
+                    message.toString(),
+                    startedAt,
+                    duration,
+                    Thread.currentThread().getName()
+            );
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startedAt;
+            String message = "warmup[fail] " + e.getMessage();
+            return new OperationResult(
+                    null,
+                    0,
+                    0,
+                    Mode.WARMUP,
+                    operation.getClientId(),
+                    operation.getScope(),
+                    OperationStatus.FAIL,
+                    message,
+                    startedAt,
+                    duration,
+                    Thread.currentThread().getName()
+            );
+        }
+    }
+
+    private static String describe(List<String> appIds) {
+        if (appIds.size() <= MAX_LISTED_APP_IDS) {
+            return String.join(",", appIds);
+        }
+        return String.join(",", appIds.subList(0, MAX_LISTED_APP_IDS))
+                + " (+" + (appIds.size() - MAX_LISTED_APP_IDS) + ")";
+    }
+
+    @Override
+    public Mode getMode() {
+        return Mode.WARMUP;
+    }
+}
@@ -26,7 +26,19 @@ public final class ExecuteBatchUseCase {
                                int maxThreads,
                                boolean debug,
                                com.company.scopehandler.api.cache.ExecutionCache cache) {
-        BatchPlan plan = plannerService.plan(clients, scopes);
-        return executorService.execute(plan, strategy, auditService, threshold, maxThreads, debug, cache);
+        return execute(clients, scopes, strategy, auditService, threshold, maxThreads, debug, cache, null);
+    }
+
+    public BatchReport execute(List<String> clients,
+                               List<String> scopes,
+                               ModeStrategy strategy,
+                               AuditService auditService,
+                               int threshold,
+                               int maxThreads,
+                               boolean debug,
+                               com.company.scopehandler.api.cache.ExecutionCache cache,
+                               com.company.scopehandler.api.cache.PlanCheckpoint checkpoint) {
+        BatchPlan plan = plannerService.plan(clients, scopes, checkpoint);
+        return executorService.execute(plan, strategy, auditService, threshold, maxThreads, debug, cache, checkpoint);
     }
 }
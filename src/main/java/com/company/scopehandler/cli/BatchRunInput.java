@@ -1,5 +1,9 @@
 package com.company.scopehandler.cli;
 
+import com.company.scopehandler.api.cache.ResumeSettings;
+import com.company.scopehandler.api.domain.ExecutorMode;
+import com.company.scopehandler.api.ports.AuthorizationServerService;
+import com.company.scopehandler.api.services.AdaptiveConcurrencySettings;
 import com.company.scopehandler.api.strategy.ModeStrategy;
 
 import java.nio.file.Path;
@@ -9,11 +13,17 @@ public record BatchRunInput(
         List<String> clients,
         List<String> scopes,
         ModeStrategy strategy,
+        AuthorizationServerService asClient,
         Path auditDir,
         int threshold,
         int threads,
+        ExecutorMode executorMode,
+        int maxInFlight,
+        AdaptiveConcurrencySettings adaptiveSettings,
+        boolean groupByClient,
         boolean debug,
         boolean ignoreCache,
+        ResumeSettings resumeSettings,
         String asName,
         String environment
 ) {
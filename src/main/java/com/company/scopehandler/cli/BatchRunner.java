@@ -1,29 +1,45 @@
 package com.company.scopehandler.cli;
 
+import com.company.scopehandler.api.cache.PlanCheckpoint;
+import com.company.scopehandler.api.cache.ResumeSettings;
 import com.company.scopehandler.api.services.AuditService;
 import com.company.scopehandler.api.services.BatchExecutorService;
 import com.company.scopehandler.api.services.BatchPlannerService;
 import com.company.scopehandler.api.services.BatchReport;
 import com.company.scopehandler.api.services.ReportService;
+import com.company.scopehandler.api.services.TaskExecutorService;
 import com.company.scopehandler.api.usecases.ExecuteBatchUseCase;
 
 import java.nio.file.Path;
 import java.util.Locale;
 
 public final class BatchRunner {
-    public void run(BatchRunInput input) {
+    public BatchReport run(BatchRunInput input) {
         BatchPlannerService plannerService = new BatchPlannerService();
-        BatchExecutorService executorService = new BatchExecutorService();
+        BatchExecutorService executorService = new BatchExecutorService(
+                new TaskExecutorService(input.executorMode(), input.maxInFlight()),
+                input.adaptiveSettings(),
+                input.groupByClient()
+        );
         ExecuteBatchUseCase useCase = new ExecuteBatchUseCase(plannerService, executorService);
 
         Path cacheDir = input.auditDir().resolve("cache");
-        Path cacheFile = cacheDir.resolve("resume-cache-" + input.asName() + "-" + input.environment() + ".txt");
-        com.company.scopehandler.api.cache.ExecutionCache cache = com.company.scopehandler.api.cache.ExecutionCache.load(cacheFile, !input.ignoreCache());
+        ResumeSettings resume = input.resumeSettings();
+        Path cacheFile = resumeCacheFile(input.auditDir(), input.asName(), input.environment(), resume.binary());
+        boolean useCheckpoint = resume.checkpoint() && !input.ignoreCache();
+        com.company.scopehandler.api.cache.ExecutionCache cache = com.company.scopehandler.api.cache.ExecutionCache.load(
+                cacheFile, !input.ignoreCache() && !useCheckpoint, resume);
+        if (cache.getDiscardedBytes() > 0) {
+            System.out.println("Cache de retomada: " + cache.getDiscardedBytes()
+                    + " bytes de registro incompleto descartados em " + cacheFile);
+        }
+        PlanCheckpoint checkpoint = useCheckpoint ? loadCheckpoint(cacheDir, input) : null;
 
         boolean completed = false;
+        BatchReport report;
         try (AuditService auditService = new AuditService(input.auditDir());
              com.company.scopehandler.api.cache.ExecutionCache ignored = cache) {
-            BatchReport report = useCase.execute(
+            report = useCase.execute(
                     input.clients(),
                     input.scopes(),
                     input.strategy(),
@@ -31,20 +47,50 @@ public final class BatchRunner {
                     input.threshold(),
                     input.threads(),
                     input.debug(),
-                    cache
+                    cache,
+                    checkpoint
             );
+            report.putMetrics(input.asClient().metrics());
             Path reportPath = new ReportService().writeReport(input.auditDir(), report);
 
-            printSummary(report, auditService.getFilePath(), reportPath, input.threshold(), input.threads());
+            printSummary(report, auditService.getFilePath(), reportPath, input);
             completed = true;
         } finally {
+            input.asClient().close();
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
             if (completed && !input.ignoreCache()) {
                 cache.deleteFile();
+                if (checkpoint != null) {
+                    checkpoint.deleteFile();
+                }
             }
         }
+        return report;
+    }
+
+    static Path resumeCacheFile(Path auditDir, String asName, String environment, boolean binary) {
+        return auditDir.resolve("cache").resolve("resume-cache-" + asName + "-" + environment
+                + (binary ? ".bin" : ".txt"));
+    }
+
+    private PlanCheckpoint loadCheckpoint(Path cacheDir, BatchRunInput input) {
+        Path file = cacheDir.resolve("resume-checkpoint-" + input.asName() + "-" + input.environment() + ".txt");
+        long total = (long) input.clients().size() * (long) input.scopes().size();
+        long fingerprint = PlanCheckpoint.fingerprint(input.strategy().getMode(), input.clients(), input.scopes());
+        PlanCheckpoint checkpoint = PlanCheckpoint.load(file, fingerprint, total, input.resumeSettings().journal());
+        if (!checkpoint.isResumed() && java.nio.file.Files.exists(file)) {
+            System.out.println("Checkpoint de outro plano ignorado: " + file);
+        } else if (checkpoint.isResumed()) {
+            System.out.println("Retomando do checkpoint: watermark=" + checkpoint.getResumeWatermark()
+                    + " falhas a refazer=" + checkpoint.getResumeFailed().size()
+                    + " pendentes=" + checkpoint.getResumePending());
+        }
+        return checkpoint;
     }
 
-    private void printSummary(BatchReport report, Path auditFile, Path reportFile, int threshold, int threads) {
+    private void printSummary(BatchReport report, Path auditFile, Path reportFile, BatchRunInput input) {
         System.out.println("Batch concluido");
         System.out.println("Total: " + report.getTotal());
         System.out.println("Success: " + report.getSuccessCount());
@@ -54,7 +100,15 @@ public final class BatchRunner {
         System.out.println("Media por operacao: " + String.format(Locale.ROOT, "%.2f", report.getAverageMsPerOperation()) + "ms");
         System.out.println("Audit: " + auditFile);
         System.out.println("Report: " + reportFile);
-        System.out.println("Multi-thread: threshold=" + threshold + " maxThreads=" + threads);
+        System.out.println("Multi-thread: threshold=" + input.threshold()
+                + " maxThreads=" + input.threads()
+                + " executor=" + input.executorMode().name().toLowerCase(Locale.ROOT)
+                + " adaptive=" + input.adaptiveSettings().enabled()
+                + " groupByClient=" + input.groupByClient());
+        if (!report.getMetrics().isEmpty()) {
+            System.out.println("Metricas do AS:");
+            report.getMetrics().forEach((name, value) -> System.out.println("- " + name + "=" + value));
+        }
         if (!report.getSampleErrors().isEmpty()) {
             System.out.println("Amostra de erros:");
             for (String err : report.getSampleErrors()) {
@@ -0,0 +1,34 @@
+package com.company.scopehandler.cli;
+
+import com.company.scopehandler.api.cache.ExecutionCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class CacheCompactionService {
+    public void compact(Path auditDir, String asName, String environment, boolean binary) {
+        if (!binary) {
+            System.out.println("Compactacao disponivel apenas para batch.resume.format=binary.");
+            return;
+        }
+        Path file = BatchRunner.resumeCacheFile(auditDir, asName, environment, true);
+        if (!Files.exists(file)) {
+            System.out.println("Cache de retomada nao encontrado: " + file);
+            return;
+        }
+        long before = size(file);
+        long records = ExecutionCache.compactMapped(file);
+        System.out.println("Cache de retomada compactado: " + file
+                + " | registros=" + records
+                + " | bytes=" + before + " -> " + size(file));
+    }
+
+    private long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read cache size: " + file, e);
+        }
+    }
+}
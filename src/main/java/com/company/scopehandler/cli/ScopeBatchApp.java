@@ -1,12 +1,18 @@
 package com.company.scopehandler.cli;
 
+import com.company.scopehandler.api.cache.JournalSettings;
+import com.company.scopehandler.api.cache.ResumeSettings;
 import com.company.scopehandler.api.config.AppConfig;
+import com.company.scopehandler.api.domain.ExecutorMode;
 import com.company.scopehandler.api.domain.Mode;
 import com.company.scopehandler.api.ports.AuthorizationServerService;
+import com.company.scopehandler.api.services.AdaptiveConcurrencySettings;
 import com.company.scopehandler.api.services.AuthorizationServerFactory;
 import com.company.scopehandler.api.services.AuthorizationServerFactory;
+import com.company.scopehandler.api.services.BatchReport;
 import com.company.scopehandler.api.strategy.ModeStrategy;
 import com.company.scopehandler.api.strategy.ModeStrategyFactory;
+import com.company.scopehandler.api.strategy.ReconcilingStrategy;
 import com.company.scopehandler.providers.axway.AxwayClientFactory;
 import com.company.scopehandler.providers.mock.MockClientFactory;
 import picocli.CommandLine;
@@ -25,7 +31,7 @@ import java.util.concurrent.Callable;
 )
 public final class ScopeBatchApp implements Callable<Integer> {
 
-    @Option(names = "--mode", required = true, description = "Modo: add|remove|list|find")
+    @Option(names = "--mode", description = "Modo: add|remove|list|find|warmup")
     private String mode;
 
     @Option(names = "--clients", split = ",", description = "Lista de clients separados por virgula")
@@ -49,6 +55,18 @@ public final class ScopeBatchApp implements Callable<Integer> {
     @Option(names = "--threads", description = "Maximo de threads")
     private Integer threads;
 
+    @Option(names = "--executor", description = "Executor do modo multi-thread: platform|virtual|reactive|affinity")
+    private String executor;
+
+    @Option(names = "--adaptive", description = "Ajusta a concorrencia (AIMD) pela latencia e erros do AS")
+    private boolean adaptive;
+
+    @Option(names = "--reconcile", description = "Consulta os escopos atuais e pula localmente operacoes sem efeito (add/remove)")
+    private boolean reconcile;
+
+    @Option(names = "--group-by-client", description = "Envia todos os escopos de um client em uma unica tarefa")
+    private boolean groupByClient;
+
     @Option(names = "--threshold", description = "Limite para habilitar multi-thread")
     private Integer threshold;
 
@@ -88,6 +106,9 @@ public final class ScopeBatchApp implements Callable<Integer> {
     @Option(names = "--ignore-cache", description = "Ignora cache de execucao anterior")
     private boolean ignoreCache;
 
+    @Option(names = "--compact-cache", description = "Compacta o cache de retomada binario do AS/ambiente e sai (sem execucao em andamento)")
+    private boolean compactCache;
+
     public static void main(String[] args) {
         int exitCode = new CommandLine(new ScopeBatchApp()).execute(args);
         System.exit(exitCode);
@@ -105,6 +126,19 @@ public final class ScopeBatchApp implements Callable<Integer> {
         if (environment == null || environment.isBlank()) {
             throw new IllegalArgumentException("Parametro --env e obrigatorio.");
         }
+        if (compactCache) {
+            AppConfig config = new CliConfigService().buildConfig(
+                    configFile, normalize(asName), normalize(environment), null, null, null, auditDir);
+            new CacheCompactionService().compact(
+                    auditDir != null ? auditDir : config.getPath("audit.dir", "./audit"),
+                    normalize(asName),
+                    normalize(environment),
+                    "binary".equalsIgnoreCase(config.get("batch.resume.format", "text").trim()));
+            return 0;
+        }
+        if (mode == null || mode.isBlank()) {
+            throw new IllegalArgumentException("Parametro --mode e obrigatorio.");
+        }
 
         CredentialsService credentialsService = new CredentialsService();
         CredentialsService.Result credentials = credentialsService.resolve(user, password, credentialsFile);
@@ -138,6 +172,9 @@ public final class ScopeBatchApp implements Callable<Integer> {
         if (parsedMode == Mode.LIST) {
             resolvedClients = inputResolver.resolve(clients, clientsFile);
             resolvedScopes = java.util.List.of("");
+        } else if (parsedMode == Mode.WARMUP) {
+            resolvedClients = java.util.List.of("");
+            resolvedScopes = java.util.List.of("");
         } else if (parsedMode == Mode.FIND) {
             resolvedClients = java.util.List.of("");
             findScopes = inputResolver.resolve(scopes, scopesFile);
@@ -150,6 +187,31 @@ public final class ScopeBatchApp implements Callable<Integer> {
 
         int resolvedThreshold = threshold != null ? threshold : config.getInt("batch.threads.threshold", 500);
         int resolvedThreads = threads != null ? threads : config.getInt("batch.threads.max", 8);
+        ExecutorMode executorMode = ExecutorMode.from(executor != null ? executor : config.get("batch.executor", "platform"));
+        int resolvedMaxInFlight = config.getInt("batch.inflight.max", 0);
+        AdaptiveConcurrencySettings adaptiveSettings = new AdaptiveConcurrencySettings(
+                adaptive || Boolean.parseBoolean(config.get("batch.adaptive.enabled", "false")),
+                config.getInt("batch.adaptive.minThreads", 1),
+                config.getInt("batch.adaptive.initialThreads", 4)
+        );
+        boolean resolvedGroupByClient = groupByClient || Boolean.parseBoolean(config.get("batch.groupByClient", "false"));
+        if (resolvedGroupByClient && (executorMode == ExecutorMode.REACTIVE
+                || executorMode == ExecutorMode.AFFINITY
+                || adaptiveSettings.enabled())) {
+            throw new IllegalArgumentException(
+                    "--group-by-client so funciona com --executor platform|virtual e sem --adaptive.");
+        }
+        ResumeSettings resumeSettings = new ResumeSettings(
+                "checkpoint".equalsIgnoreCase(config.get("batch.resume.mode", "keys").trim()),
+                "binary".equalsIgnoreCase(config.get("batch.resume.format", "text").trim()),
+                Boolean.parseBoolean(config.get("batch.resume.verify", "true")),
+                new JournalSettings(
+                        Boolean.parseBoolean(config.get("batch.resume.groupCommit", "false")),
+                        Math.max(1, config.getInt("batch.resume.flushEveryRecords", 256)),
+                        config.getInt("batch.resume.flushIntervalMs", 200),
+                        Boolean.parseBoolean(config.get("batch.resume.fsync", "false"))
+                )
+        );
         Path resolvedAuditDir = auditDir != null ? auditDir : config.getPath("audit.dir", "./audit");
         AuthorizationServerFactory registry = new RegistryService(
                 new MockClientFactory(),
@@ -160,22 +222,33 @@ public final class ScopeBatchApp implements Callable<Integer> {
                 com.company.scopehandler.api.domain.FindMatchMode.from(findMode);
         ModeStrategy strategy = new ModeStrategyFactory()
                 .create(parsedMode, asClient, createScope, findScopes, matchMode);
+        boolean resolvedReconcile = reconcile || Boolean.parseBoolean(config.get("batch.reconcile", "false"));
+        if (resolvedReconcile && (parsedMode == Mode.ADD || parsedMode == Mode.REMOVE)) {
+            strategy = new ReconcilingStrategy(strategy, asClient);
+        }
 
         BatchRunInput input = new BatchRunInput(
                 resolvedClients,
                 resolvedScopes,
                 strategy,
+                asClient,
                 resolvedAuditDir,
                 resolvedThreshold,
                 resolvedThreads,
+                executorMode,
+                resolvedMaxInFlight,
+                adaptiveSettings,
+                resolvedGroupByClient,
                 debug,
                 ignoreCache,
+                resumeSettings,
                 resolvedAsName,
                 resolvedEnv
         );
-        new BatchRunner().run(input);
+        BatchReport report = new BatchRunner().run(input);
 
-        return 0;
+        // a partial warmup leaves the caches incomplete; schedulers chaining runs must see it
+        return parsedMode == Mode.WARMUP && report.getFailureCount() > 0 ? 1 : 0;
     }
 
     private String normalize(String value) {
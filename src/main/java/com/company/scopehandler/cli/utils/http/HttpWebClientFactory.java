@@ -1,8 +1,11 @@
 package com.company.scopehandler.cli.utils.http;
 
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.ClientRequest;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.util.Collections;
 import java.util.Map;
@@ -19,6 +22,17 @@ public final class HttpWebClientFactory {
                 .build();
     }
 
+    public static WebClient build(HttpRequestLogger logger, int maxConnections) {
+        ConnectionProvider provider = ConnectionProvider.builder("scope-handler")
+                .maxConnections(Math.max(1, maxConnections))
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .filter(logFilter(logger))
+                .build();
+    }
+
     private static ExchangeFilterFunction logFilter(HttpRequestLogger logger) {
         return (request, next) -> {
             Map<String, String> context = extractContext(request);
@@ -7,7 +7,9 @@ import com.company.scopehandler.providers.axway.dto.OAuthAppScopeDto;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.UnsupportedMediaTypeException;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -22,98 +24,121 @@ public final class AxwayAuthorizationServerClient {
 
     private final WebClient webClient;
     private final Duration requestTimeout;
+    private final AxwayRateLimiter rateLimiter;
+    private final AxwayRetryPolicy retryPolicy;
+    private final AxwayCircuitBreaker circuitBreaker;
 
     public AxwayAuthorizationServerClient(WebClient webClient,
                                           Duration requestTimeout) {
+        this(webClient, requestTimeout, AxwayRateLimiter.disabled(), AxwayRetryPolicy.disabled(),
+                AxwayCircuitBreaker.disabled());
+    }
+
+    public AxwayAuthorizationServerClient(WebClient webClient,
+                                          Duration requestTimeout,
+                                          AxwayRateLimiter rateLimiter,
+                                          AxwayRetryPolicy retryPolicy,
+                                          AxwayCircuitBreaker circuitBreaker) {
         this.requestTimeout = requestTimeout;
         this.webClient = webClient;
+        this.rateLimiter = java.util.Objects.requireNonNull(rateLimiter, "rateLimiter");
+        this.retryPolicy = java.util.Objects.requireNonNull(retryPolicy, "retryPolicy");
+        this.circuitBreaker = java.util.Objects.requireNonNull(circuitBreaker, "circuitBreaker");
+    }
+
+    public java.util.Map<String, Long> metrics() {
+        java.util.Map<String, Long> metrics = new java.util.LinkedHashMap<>(rateLimiter.metrics());
+        metrics.putAll(retryPolicy.metrics());
+        metrics.putAll(circuitBreaker.metrics());
+        return metrics;
     }
 
     public ApplicationDto fetchApplicationByClientId(String clientId, java.util.Map<String, String> context) {
+        return fetchApplicationByClientIdAsync(clientId, context).block();
+    }
+
+    public Mono<ApplicationDto> fetchApplicationByClientIdAsync(String clientId, java.util.Map<String, String> context) {
         String path = APP_BY_CLIENT.replace("{clientId}", urlEncode(clientId));
-        try {
-            return webClient.get()
-                    .uri(path)
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .exchangeToMono(resp -> toDto(resp, ApplicationDto.class, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to fetch application by clientId", e);
-        }
+        return send(AxwayEndpoint.APPLICATION_BY_CLIENT, webClient.get()
+                        .uri(path)
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .exchangeToMono(resp -> toDto(resp, ApplicationDto.class, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to fetch application by clientId", e));
     }
 
     public OAuthAppScopeDto[] listApplicationScopes(String appId, java.util.Map<String, String> context) {
+        return listApplicationScopesAsync(appId, context).block();
+    }
+
+    public Mono<OAuthAppScopeDto[]> listApplicationScopesAsync(String appId, java.util.Map<String, String> context) {
         String path = APP_SCOPES.replace("{id}", urlEncode(appId));
-        try {
-            return webClient.get()
-                    .uri(path)
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .exchangeToMono(resp -> toDto(resp, OAuthAppScopeDto[].class, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to list application scopes", e);
-        }
+        return send(AxwayEndpoint.APP_SCOPES_GET, webClient.get()
+                        .uri(path)
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .exchangeToMono(resp -> toDto(resp, OAuthAppScopeDto[].class, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to list application scopes", e));
     }
 
     public ApplicationDto[] listApplications(java.util.Map<String, String> context) {
-        try {
-            return webClient.get()
-                    .uri(APPS)
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .exchangeToMono(resp -> toDto(resp, ApplicationDto[].class, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to list applications", e);
-        }
+        return listApplicationsAsync(context).block();
+    }
+
+    public Mono<ApplicationDto[]> listApplicationsAsync(java.util.Map<String, String> context) {
+        return send(AxwayEndpoint.APPLICATIONS, webClient.get()
+                        .uri(APPS)
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .exchangeToMono(resp -> toDto(resp, ApplicationDto[].class, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to list applications", e));
     }
 
     public com.company.scopehandler.providers.axway.dto.OAuthClientDto[] listApplicationOAuthClients(String appId,
                                                                                                     java.util.Map<String, String> context) {
-        try {
-            return webClient.get()
-                    .uri(APP_OAUTH.replace("{id}", urlEncode(appId)))
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .exchangeToMono(resp -> toDto(resp, com.company.scopehandler.providers.axway.dto.OAuthClientDto[].class, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to list application oauth clients", e);
-        }
+        return listApplicationOAuthClientsAsync(appId, context).block();
+    }
+
+    public Mono<com.company.scopehandler.providers.axway.dto.OAuthClientDto[]> listApplicationOAuthClientsAsync(String appId,
+                                                                                                               java.util.Map<String, String> context) {
+        return send(AxwayEndpoint.APP_OAUTH, webClient.get()
+                        .uri(APP_OAUTH.replace("{id}", urlEncode(appId)))
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .exchangeToMono(resp -> toDto(resp, com.company.scopehandler.providers.axway.dto.OAuthClientDto[].class, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to list application oauth clients", e));
     }
 
     public AxwayResponse createApplicationScope(String appId, String scope, java.util.Map<String, String> context) {
+        return createApplicationScopeAsync(appId, scope, context).block();
+    }
+
+    public Mono<AxwayResponse> createApplicationScopeAsync(String appId, String scope, java.util.Map<String, String> context) {
         OAuthAppScopeDto payload = new OAuthAppScopeDto(appId, scope, true);
-        try {
-            return webClient.post()
-                    .uri(APP_SCOPES.replace("{id}", urlEncode(appId)))
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(payload)
-                    .exchangeToMono(resp -> toPostResponse(resp, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to create application scope", e);
-        }
+        return send(AxwayEndpoint.APP_SCOPES_POST, webClient.post()
+                        .uri(APP_SCOPES.replace("{id}", urlEncode(appId)))
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(payload)
+                        .exchangeToMono(resp -> toPostResponse(resp, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to create application scope", e));
     }
 
     public AxwayResponse deleteApplicationScope(String appId, String scopeId, java.util.Map<String, String> context) {
+        return deleteApplicationScopeAsync(appId, scopeId, context).block();
+    }
+
+    public Mono<AxwayResponse> deleteApplicationScopeAsync(String appId, String scopeId, java.util.Map<String, String> context) {
         String path = APP_SCOPE_BY_ID
                 .replace("{id}", urlEncode(appId))
                 .replace("{scopeId}", urlEncode(scopeId));
-        try {
-            return webClient.delete()
-                    .uri(path)
-                    .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
-                    .exchangeToMono(resp -> toDefaultResponse(resp, context))
-                    .timeout(requestTimeout)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to delete application scope", e);
-        }
+        return send(AxwayEndpoint.APP_SCOPES_DELETE, webClient.delete()
+                        .uri(path)
+                        .attribute(HttpWebClientFactory.CONTEXT_ATTR, context)
+                        .exchangeToMono(resp -> toDefaultResponse(resp, context)))
+                .onErrorMap(e -> new IllegalStateException("Failed to delete application scope", e));
+    }
+
+    private <T> Mono<T> send(AxwayEndpoint endpoint, Mono<T> request) {
+        // each attempt checks the circuit, waits for its own permit and gets a fresh timeout
+        return retryPolicy.apply(endpoint, circuitBreaker.protect(endpoint,
+                rateLimiter.acquire(endpoint).then(request.timeout(requestTimeout))));
     }
 
     private <T> Mono<T> toDto(ClientResponse response, Class<T> dtoClass, java.util.Map<String, String> context) {
@@ -123,7 +148,7 @@ public final class AxwayAuthorizationServerClient {
         return response.bodyToMono(String.class)
                 .defaultIfEmpty("")
                 .flatMap(body -> {
-                    return Mono.error(new AxwayHttpException(response.rawStatusCode()));
+                    return Mono.error(new AxwayHttpException(response.rawStatusCode(), retryAfterMs(response)));
                 });
     }
 
@@ -138,7 +163,7 @@ public final class AxwayAuthorizationServerClient {
         return response.bodyToMono(String.class)
                 .defaultIfEmpty("")
                 .flatMap(body -> {
-                    return Mono.error(new AxwayHttpException(response.rawStatusCode()));
+                    return Mono.error(new AxwayHttpException(response.rawStatusCode(), retryAfterMs(response)));
                 });
     }
 
@@ -150,35 +175,78 @@ public final class AxwayAuthorizationServerClient {
                         return new AxwayResponse(409);
                     });
         }
+        if (response.statusCode().is2xxSuccessful()) {
+            int statusCode = response.statusCode().value();
+            // the created scope's id lets later deletes skip the scope listing; an unreadable body only loses the id
+            return response.bodyToMono(OAuthAppScopeDto.class)
+                    .map(dto -> new AxwayResponse(statusCode, dto.getId()))
+                    .onErrorResume(e -> e instanceof DecodingException || e instanceof UnsupportedMediaTypeException,
+                            e -> Mono.empty())
+                    .defaultIfEmpty(new AxwayResponse(statusCode));
+        }
         return toDefaultResponse(response, context);
     }
 
+    private long retryAfterMs(ClientResponse response) {
+        String value = response.headers().asHttpHeaders().getFirst("Retry-After");
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            try {
+                long at = java.time.ZonedDateTime.parse(value.trim(), java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return Math.max(0L, at - System.currentTimeMillis());
+            } catch (java.time.format.DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
     private String urlEncode(String value) {
         return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
 
     public static final class AxwayResponse {
         private final int statusCode;
+        private final String id;
 
         public AxwayResponse(int statusCode) {
+            this(statusCode, null);
+        }
+
+        public AxwayResponse(int statusCode, String id) {
             this.statusCode = statusCode;
+            this.id = id;
         }
 
         public int getStatusCode() {
             return statusCode;
         }
+
+        public String getId() {
+            return id;
+        }
     }
 
     public static final class AxwayHttpException extends RuntimeException {
         private final int statusCode;
+        private final long retryAfterMs;
 
-        private AxwayHttpException(int statusCode) {
+        private AxwayHttpException(int statusCode, long retryAfterMs) {
             super("HTTP " + statusCode);
             this.statusCode = statusCode;
+            this.retryAfterMs = retryAfterMs;
         }
 
         public int getStatusCode() {
             return statusCode;
         }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
     }
 }
@@ -11,12 +11,13 @@ import com.company.scopehandler.providers.axway.dto.OAuthAppScopeDto;
 import com.company.scopehandler.providers.axway.dto.OAuthClientDto;
 import com.company.scopehandler.api.services.TaskIterable;
 
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Objects;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public final class AxwayAuthorizationServerService implements AuthorizationServerService {
     private final AxwayAuthorizationServerClient client;
@@ -24,58 +25,194 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
     private final AxwayScopeCacheStore scopeCacheStore;
     private final com.company.scopehandler.api.services.TaskExecutorService taskExecutor;
     private final int findThreads;
-    private static final long SCOPE_TTL_MS = 24L * 60L * 60L * 1000L;
+    private final AxwayFindEngine findEngine;
+    private final java.util.concurrent.ThreadPoolExecutor refresher;
+    private final Set<String> refreshing = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    private final java.util.concurrent.atomic.AtomicLong refreshes = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong refreshFailures = new java.util.concurrent.atomic.AtomicLong();
+    private final SingleFlight<String, String> applicationFlight = new SingleFlight<>();
+    private final SingleFlight<String, OAuthAppScopeDto[]> scopeFlight = new SingleFlight<>();
 
     public AxwayAuthorizationServerService(AxwayAuthorizationServerClient client,
                                            AxwayCacheStore cacheStore,
                                            AxwayScopeCacheStore scopeCacheStore,
                                            com.company.scopehandler.api.services.TaskExecutorService taskExecutor,
                                            int findThreads) {
+        this(client, cacheStore, scopeCacheStore, taskExecutor, findThreads, AxwayFindEngine.INDEX);
+    }
+
+    public AxwayAuthorizationServerService(AxwayAuthorizationServerClient client,
+                                           AxwayCacheStore cacheStore,
+                                           AxwayScopeCacheStore scopeCacheStore,
+                                           com.company.scopehandler.api.services.TaskExecutorService taskExecutor,
+                                           int findThreads,
+                                           AxwayFindEngine findEngine) {
+        this(client, cacheStore, scopeCacheStore, taskExecutor, findThreads, findEngine, 2);
+    }
+
+    public AxwayAuthorizationServerService(AxwayAuthorizationServerClient client,
+                                           AxwayCacheStore cacheStore,
+                                           AxwayScopeCacheStore scopeCacheStore,
+                                           com.company.scopehandler.api.services.TaskExecutorService taskExecutor,
+                                           int findThreads,
+                                           AxwayFindEngine findEngine,
+                                           int refreshThreads) {
         this.client = client;
         this.cacheStore = cacheStore;
         this.scopeCacheStore = scopeCacheStore;
         this.taskExecutor = Objects.requireNonNull(taskExecutor, "taskExecutor");
         this.findThreads = Math.max(1, findThreads);
+        this.findEngine = Objects.requireNonNull(findEngine, "findEngine");
+        int threads = Math.max(1, refreshThreads);
+        java.util.concurrent.atomic.AtomicInteger refresherIds = new java.util.concurrent.atomic.AtomicInteger();
+        this.refresher = new java.util.concurrent.ThreadPoolExecutor(threads, threads, 30, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.ArrayBlockingQueue<>(1024), runnable -> {
+                    Thread thread = new Thread(runnable, "axway-scope-refresh-" + refresherIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.refresher.allowCoreThreadTimeOut(true);
     }
 
     @Override
     public OperationOutcome associateScope(String clientId, String scope) {
-        try {
-            String appId = resolveApplicationId(clientId);
-            java.util.Map<String, String> ctx = new ContextBuilder()
-                    .put("clientId", clientId)
-                    .put("appId", appId)
-                    .put("scope", scope)
-                    .build();
-            AxwayAuthorizationServerClient.AxwayResponse response = client.createApplicationScope(appId, scope, ctx);
-            if (response.getStatusCode() == 409) {
-                return OperationOutcome.skip(409, "scope already associated for application id=" + appId + " scope=" + scope);
-            }
-            return toOutcome("associate", response.getStatusCode());
-        } catch (Exception e) {
-            return OperationOutcome.fail(-1, "associate failed: " + e.getMessage());
-        }
+        return associateScopeAsync(clientId, scope).block();
+    }
+
+    @Override
+    public Mono<OperationOutcome> associateScopeAsync(String clientId, String scope) {
+        return withRetryCount(resolveApplicationIdAsync(clientId)
+                .flatMap(appId -> {
+                    java.util.Map<String, String> ctx = new ContextBuilder()
+                            .put("clientId", clientId)
+                            .put("appId", appId)
+                            .put("scope", scope)
+                            .build();
+                    return client.createApplicationScopeAsync(appId, scope, ctx)
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(response -> {
+                                if (response.getStatusCode() == 409) {
+                                    rememberScope(appId, scope, null);
+                                    return OperationOutcome.skip(409, "scope already associated for application id=" + appId + " scope=" + scope);
+                                }
+                                OperationOutcome outcome = toOutcome("associate", response.getStatusCode());
+                                if (outcome.isSuccess()) {
+                                    rememberScope(appId, scope, response.getId());
+                                }
+                                return outcome;
+                            });
+                })
+                .onErrorResume(e -> Mono.just(OperationOutcome.fail(statusCodeOf(e), "associate failed: " + errorMessage(e)))));
     }
 
     @Override
     public OperationOutcome dissociateScope(String clientId, String scope) {
+        return dissociateScopeAsync(clientId, scope).block();
+    }
+
+    @Override
+    public Mono<OperationOutcome> dissociateScopeAsync(String clientId, String scope) {
+        return withRetryCount(resolveApplicationIdAsync(clientId)
+                .flatMap(appId -> {
+                    String cachedScopeId = cachedScopeId(appId, scope);
+                    if (cachedScopeId == null) {
+                        return dissociateWithFreshScopeId(clientId, appId, scope);
+                    }
+                    // a 404 on a cached id may mean the scope was recreated elsewhere, so look it up once more
+                    return deleteScope(clientId, appId, scope, cachedScopeId)
+                            .onErrorResume(e -> statusCodeOf(e) == 404, e -> {
+                                if (scopeCacheStore != null) {
+                                    scopeCacheStore.evict(appId);
+                                }
+                                return dissociateWithFreshScopeId(clientId, appId, scope);
+                            });
+                })
+                .onErrorResume(e -> Mono.just(OperationOutcome.fail(statusCodeOf(e), "dissociate failed: " + errorMessage(e)))));
+    }
+
+    private Mono<OperationOutcome> dissociateWithFreshScopeId(String clientId, String appId, String scope) {
+        return fetchScopeIdAsync(appId, scope)
+                .flatMap(scopeId -> deleteScope(clientId, appId, scope, scopeId))
+                .switchIfEmpty(Mono.fromSupplier(() -> OperationOutcome.skip(404,
+                        "scope not found for application id=" + appId + " scope=" + scope)));
+    }
+
+    private Mono<OperationOutcome> deleteScope(String clientId, String appId, String scope, String scopeId) {
+        java.util.Map<String, String> ctx = new ContextBuilder()
+                .put("clientId", clientId)
+                .put("appId", appId)
+                .put("scopeId", scopeId)
+                .put("scope", scope)
+                .build();
+        return Mono.deferContextual(context -> {
+            java.util.concurrent.atomic.AtomicInteger retries =
+                    context.<java.util.concurrent.atomic.AtomicInteger>getOrEmpty(AxwayRetryPolicy.RETRY_COUNTER).orElse(null);
+            int retriesBefore = retries != null ? retries.get() : 0;
+            return client.deleteApplicationScopeAsync(appId, scopeId, ctx)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(response -> {
+                        OperationOutcome outcome = toOutcome("dissociate", response.getStatusCode());
+                        if (outcome.isSuccess() && scopeCacheStore != null) {
+                            scopeCacheStore.removeScope(appId, scope);
+                        }
+                        return outcome;
+                    })
+                    // only a retried DELETE may find the scope already removed by its own earlier attempt;
+                    // a 404 on the first attempt keeps failing as before
+                    .onErrorResume(e -> statusCodeOf(e) == 404 && retries != null && retries.get() > retriesBefore, e -> {
+                        if (scopeCacheStore != null) {
+                            scopeCacheStore.removeScope(appId, scope);
+                        }
+                        return Mono.just(OperationOutcome.skip(404,
+                                "scope already removed for application id=" + appId + " scope=" + scope));
+                    });
+        });
+    }
+
+    @Override
+    public Map<String, OperationOutcome> associateScopes(String clientId, List<String> scopes) {
+        return forEachScope(clientId, scopes, "associate", false, scope -> associateScopeAsync(clientId, scope));
+    }
+
+    @Override
+    public Map<String, OperationOutcome> dissociateScopes(String clientId, List<String> scopes) {
+        return forEachScope(clientId, scopes, "dissociate", true, scope -> dissociateScopeAsync(clientId, scope));
+    }
+
+    private Map<String, OperationOutcome> forEachScope(String clientId,
+                                                       List<String> scopes,
+                                                       String op,
+                                                       boolean needsScopeIds,
+                                                       java.util.function.Function<String, Mono<OperationOutcome>> call) {
+        Map<String, OperationOutcome> outcomes = new java.util.LinkedHashMap<>();
+        // the first scope also pays for the shared lookups, as it would when run on its own
+        long startedAt = System.currentTimeMillis();
+        String appId;
         try {
-            String appId = resolveApplicationId(clientId);
-            String scopeId = resolveScopeId(appId, scope);
-            if (scopeId == null) {
-                return OperationOutcome.skip(404, "scope not found for application id=" + appId + " scope=" + scope);
+            appId = resolveApplicationId(clientId);
+        } catch (RuntimeException e) {
+            OperationOutcome failure = OperationOutcome.fail(statusCodeOf(e), op + " failed: " + errorMessage(e))
+                    .withTiming(startedAt, System.currentTimeMillis() - startedAt);
+            for (String scope : scopes) {
+                outcomes.put(scope, failure);
             }
-            java.util.Map<String, String> ctx = new ContextBuilder()
-                    .put("clientId", clientId)
-                    .put("appId", appId)
-                    .put("scopeId", scopeId)
-                    .put("scope", scope)
-                    .build();
-            AxwayAuthorizationServerClient.AxwayResponse response = client.deleteApplicationScope(appId, scopeId, ctx);
-            return toOutcome("dissociate", response.getStatusCode());
-        } catch (Exception e) {
-            return OperationOutcome.fail(-1, "dissociate failed: " + e.getMessage());
+            return outcomes;
+        }
+        if (needsScopeIds && cachedScopeIdsMissing(appId)) {
+            // one listing per client fills the scope ids every delete below reuses
+            fetchScopeIdsAsync(appId).onErrorResume(e -> Mono.empty()).block();
         }
+        for (String scope : scopes) {
+            OperationOutcome outcome = call.apply(scope).block();
+            long finishedAt = System.currentTimeMillis();
+            outcomes.put(scope, outcome.withTiming(startedAt, finishedAt - startedAt));
+            startedAt = finishedAt;
+        }
+        return outcomes;
+    }
+
+    private boolean cachedScopeIdsMissing(String appId) {
+        return scopeCacheStore != null && scopeCacheStore.getScopeIds(appId) == null;
     }
 
     @Override
@@ -83,10 +220,21 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
         return OperationOutcome.ok(200, "createScope not required for axway");
     }
 
+    @Override
+    public Mono<OperationOutcome> createScopeAsync(String scope) {
+        return Mono.just(createScope(scope));
+    }
+
     @Override
     public List<String> listScopes(String clientId) {
         String appId = resolveApplicationId(clientId);
-        return loadAppScopes(appId);
+        return loadAppScopes(appId, true);
+    }
+
+    @Override
+    public List<String> listCurrentScopes(String clientId) {
+        String appId = resolveApplicationId(clientId);
+        return loadAppScopes(appId, false);
     }
 
     @Override
@@ -108,6 +256,16 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
     @Override
     public List<String> findClientsByScopes(List<String> scopes,
                                             com.company.scopehandler.api.domain.FindMatchMode matchMode) {
+        if (scopeCacheStore != null && cacheStore != null) {
+            // answered locally while the last full warmup is within the TTL
+            boolean any = matchMode == com.company.scopehandler.api.domain.FindMatchMode.OR;
+            Set<String> appIds = findEngine == AxwayFindEngine.BITSET
+                    ? scopeCacheStore.matchApplications(scopes, any)
+                    : scopeCacheStore.findApplications(scopes, any);
+            if (appIds != null) {
+                return List.copyOf(cacheStore.getClientIds(appIds));
+            }
+        }
         ApplicationDto[] apps = client.listApplications(new ContextBuilder().build());
         if (apps == null || apps.length == 0) {
             return List.of();
@@ -124,7 +282,7 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
 
         Iterable<java.util.concurrent.Callable<List<String>>> tasks =
                 new TaskIterable<>(appIds, appId -> () -> {
-                    List<String> appScopes = loadAppScopes(appId);
+                    List<String> appScopes = loadAppScopes(appId, true);
                     if (!matchesScopes(appScopes, scopes, matchMode)) {
                         return List.of();
                     }
@@ -143,36 +301,202 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
         return List.copyOf(matches);
     }
 
-    private String resolveApplicationId(String clientId) {
-        String cached = cacheStore != null ? cacheStore.getAppId(clientId) : null;
-        if (cached != null) {
-            return cached;
+    @Override
+    public com.company.scopehandler.api.domain.WarmupResult warmUp() {
+        ApplicationDto[] apps = client.listApplications(new ContextBuilder().build());
+        List<String> appIds = new java.util.ArrayList<>();
+        if (apps != null) {
+            for (ApplicationDto app : apps) {
+                if (app != null && app.getId() != null && !app.getId().isBlank()) {
+                    appIds.add(app.getId());
+                }
+            }
         }
-        ApplicationDto dto = client.fetchApplicationByClientId(clientId, new ContextBuilder()
-                .put("clientId", clientId)
-                .build());
-        if (dto == null || dto.getId() == null || dto.getId().isBlank()) {
-            throw new IllegalStateException("application id not found in response");
+
+        Map<String, String> clientToAppId = new java.util.concurrent.ConcurrentHashMap<>();
+        Map<String, List<String>> appScopes = new java.util.concurrent.ConcurrentHashMap<>();
+        Map<String, Map<String, String>> appScopeIds = new java.util.concurrent.ConcurrentHashMap<>();
+        java.util.Queue<String> failed = new java.util.concurrent.ConcurrentLinkedQueue<>();
+        Iterable<java.util.concurrent.Callable<String>> tasks =
+                new TaskIterable<>(appIds, appId -> () -> {
+                    try {
+                        for (String clientId : listClientsForApp(appId)) {
+                            clientToAppId.put(clientId, appId);
+                        }
+                        OAuthAppScopeDto[] scopes = client.listApplicationScopes(appId, new ContextBuilder()
+                                .put("appId", appId)
+                                .build());
+                        appScopes.put(appId, toScopeNames(scopes));
+                        appScopeIds.put(appId, toScopeIds(scopes));
+                        return appId;
+                    } catch (RuntimeException e) {
+                        failed.add(appId);
+                        throw e;
+                    }
+                });
+        if (!appIds.isEmpty()) {
+            taskExecutor.execute(tasks, Math.min(appIds.size(), findThreads), appId -> {
+            }, error -> {
+                // the failed appId was recorded by the task itself
+            });
         }
+
+        // one snapshot per cache instead of one write per entry
         if (cacheStore != null) {
-            cacheStore.putAppId(clientId, dto.getId());
+            cacheStore.putAppIds(clientToAppId);
+        }
+        if (scopeCacheStore != null) {
+            scopeCacheStore.putAllScopes(appScopes, appScopeIds, failed.isEmpty());
         }
-        return dto.getId();
+        Map<String, Long> counts = new java.util.LinkedHashMap<>();
+        counts.put("applications", (long) appIds.size());
+        counts.put("clients", (long) clientToAppId.size());
+        counts.put("scopes", (long) appScopes.size());
+        counts.put("failures", (long) failed.size());
+        return new com.company.scopehandler.api.domain.WarmupResult(counts, List.copyOf(failed));
     }
 
-    private String resolveScopeId(String appId, String scope) {
-        OAuthAppScopeDto[] scopes = client.listApplicationScopes(appId, new ContextBuilder()
-                .put("appId", appId)
-                .build());
-        Map<String, String> map = new HashMap<>();
+    @Override
+    public Map<String, Long> metrics() {
+        Map<String, Long> metrics = new java.util.LinkedHashMap<>();
+        metrics.put("singleFlight.applications.calls", applicationFlight.getCalls());
+        metrics.put("singleFlight.applications.coalesced", applicationFlight.getCoalesced());
+        metrics.put("singleFlight.scopes.calls", scopeFlight.getCalls());
+        metrics.put("singleFlight.scopes.coalesced", scopeFlight.getCoalesced());
+        if (scopeCacheStore != null) {
+            metrics.putAll(scopeCacheStore.metrics());
+            metrics.put("scopeCache.refreshes", refreshes.get());
+            metrics.put("scopeCache.refreshFailures", refreshFailures.get());
+        }
+        metrics.putAll(client.metrics());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdown();
+        try {
+            // lets in-flight refreshes land in the scope cache before its final flush
+            refresher.awaitTermination(10, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (cacheStore != null) {
+            cacheStore.close();
+        }
+        if (scopeCacheStore != null) {
+            scopeCacheStore.close();
+        }
+    }
+
+    private Mono<OperationOutcome> withRetryCount(Mono<OperationOutcome> operation) {
+        return Mono.defer(() -> {
+            java.util.concurrent.atomic.AtomicInteger retries = new java.util.concurrent.atomic.AtomicInteger();
+            return operation
+                    .map(outcome -> outcome.withRetries(retries.get()))
+                    .contextWrite(reactor.util.context.Context.of(AxwayRetryPolicy.RETRY_COUNTER, retries));
+        });
+    }
+
+    private String resolveApplicationId(String clientId) {
+        return resolveApplicationIdAsync(clientId).block();
+    }
+
+    private Mono<String> resolveApplicationIdAsync(String clientId) {
+        return Mono.defer(() -> {
+            String cached = cacheStore != null ? cacheStore.getAppId(clientId) : null;
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            // concurrent misses for the same client share one GET
+            return applicationFlight.execute(clientId, () -> fetchApplicationIdAsync(clientId));
+        });
+    }
+
+    private Mono<String> fetchApplicationIdAsync(String clientId) {
+        return client.fetchApplicationByClientIdAsync(clientId, new ContextBuilder()
+                        .put("clientId", clientId)
+                        .build())
+                .filter(dto -> dto.getId() != null && !dto.getId().isBlank())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("application id not found in response")))
+                .map(ApplicationDto::getId)
+                // the cache store writes to disk, keep that off the HTTP event loop
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(appId -> {
+                    if (cacheStore != null) {
+                        cacheStore.putAppId(clientId, appId);
+                    }
+                });
+    }
+
+    private Mono<OAuthAppScopeDto[]> fetchAppScopesAsync(String appId) {
+        return scopeFlight.execute(appId, () -> {
+            // taken before the GET: a write-through that lands while it is in flight wins over its response
+            long token = scopeCacheStore != null ? scopeCacheStore.versionToken() : 0;
+            return client.listApplicationScopesAsync(appId, new ContextBuilder()
+                            .put("appId", appId)
+                            .build())
+                    // the cache store writes to disk, keep that off the HTTP event loop
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(scopes -> {
+                        if (scopeCacheStore != null) {
+                            scopeCacheStore.putScopesIfUnchanged(appId, toScopeNames(scopes), toScopeIds(scopes), token);
+                        }
+                    });
+        });
+    }
+
+    private String cachedScopeId(String appId, String scope) {
+        Map<String, String> scopeIds = scopeCacheStore != null ? scopeCacheStore.getScopeIds(appId) : null;
+        return scopeIds != null ? scopeIds.get(scope) : null;
+    }
+
+    private Mono<String> fetchScopeIdAsync(String appId, String scope) {
+        return fetchScopeIdsAsync(appId).flatMap(scopeIds -> Mono.justOrEmpty(scopeIds.get(scope)));
+    }
+
+    private Mono<Map<String, String>> fetchScopeIdsAsync(String appId) {
+        return fetchAppScopesAsync(appId).map(this::toScopeIds);
+    }
+
+    private Map<String, String> toScopeIds(OAuthAppScopeDto[] scopes) {
+        Map<String, String> scopeIds = new java.util.LinkedHashMap<>();
         if (scopes != null) {
             for (OAuthAppScopeDto item : scopes) {
-                if (item.getScope() != null && item.getId() != null) {
-                    map.put(item.getScope(), item.getId());
+                if (item != null && item.getScope() != null && !item.getScope().isBlank() && item.getId() != null) {
+                    scopeIds.put(item.getScope(), item.getId());
                 }
             }
         }
-        return map.get(scope);
+        return scopeIds;
+    }
+
+    private void rememberScope(String appId, String scope, String scopeId) {
+        if (scopeCacheStore != null) {
+            scopeCacheStore.addScope(appId, scope, scopeId);
+        }
+    }
+
+    private int statusCodeOf(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof AxwayAuthorizationServerClient.AxwayHttpException httpError) {
+                return httpError.getStatusCode();
+            }
+            if (current instanceof java.util.concurrent.TimeoutException) {
+                // client-side timeout, reported as 408 so batch throttling can tell it apart from other failures
+                return 408;
+            }
+        }
+        return -1;
+    }
+
+    private String errorMessage(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof AxwayCircuitBreaker.CircuitOpenException) {
+                return current.getMessage();
+            }
+        }
+        return error.getMessage();
     }
 
     private OperationOutcome toOutcome(String op, int statusCode) {
@@ -183,14 +507,44 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
         return OperationOutcome.fail(statusCode, message);
     }
 
-    private List<String> loadAppScopes(String appId) {
-        List<String> cached = scopeCacheStore != null ? scopeCacheStore.getScopes(appId, SCOPE_TTL_MS) : null;
+    private List<String> loadAppScopes(String appId, boolean allowStale) {
+        if (!allowStale) {
+            List<String> cached = scopeCacheStore != null ? scopeCacheStore.getScopes(appId) : null;
+            return cached != null ? cached : toScopeNames(fetchAppScopesAsync(appId).block());
+        }
+        AxwayScopeCacheStore.ScopeLookup cached = scopeCacheStore != null ? scopeCacheStore.lookupScopes(appId) : null;
         if (cached != null) {
-            return cached;
+            if (cached.stale()) {
+                // served as is; past the staleness bound the store returns nothing and the load below is synchronous
+                refreshInBackground(appId);
+            }
+            return cached.scopes();
         }
-        OAuthAppScopeDto[] scopes = client.listApplicationScopes(appId, new ContextBuilder()
-                .put("appId", appId)
-                .build());
+        return toScopeNames(fetchAppScopesAsync(appId).block());
+    }
+
+    private void refreshInBackground(String appId) {
+        if (!refreshing.add(appId)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    fetchAppScopesAsync(appId).block();
+                    refreshes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    refreshFailures.incrementAndGet();
+                } finally {
+                    refreshing.remove(appId);
+                }
+            });
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // queue full or shutting down; the next stale read tries again
+            refreshing.remove(appId);
+        }
+    }
+
+    private List<String> toScopeNames(OAuthAppScopeDto[] scopes) {
         List<String> values = new java.util.ArrayList<>();
         if (scopes != null) {
             for (OAuthAppScopeDto item : scopes) {
@@ -199,9 +553,6 @@ public final class AxwayAuthorizationServerService implements AuthorizationServe
                 }
             }
         }
-        if (scopeCacheStore != null) {
-            scopeCacheStore.putScopes(appId, values);
-        }
         return values;
     }
 
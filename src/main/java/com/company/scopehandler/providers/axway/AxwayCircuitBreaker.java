@@ -0,0 +1,174 @@
+package com.company.scopehandler.providers.axway;
+
+import com.company.scopehandler.api.config.AppConfig;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+public final class AxwayCircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Consumer<String> listener;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public AxwayCircuitBreaker(int failureThreshold, Duration openDuration, Consumer<String> listener) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.listener = listener;
+    }
+
+    public static AxwayCircuitBreaker disabled() {
+        return new AxwayCircuitBreaker(0, Duration.ZERO, null);
+    }
+
+    public static AxwayCircuitBreaker from(AppConfig config, String asName, Consumer<String> listener) {
+        String prefix = "as." + asName + ".circuit.";
+        return new AxwayCircuitBreaker(
+                config.getInt(prefix + "failureThreshold", 5),
+                Duration.ofSeconds(config.getInt(prefix + "openSeconds", 30)),
+                listener
+        );
+    }
+
+    public <T> Mono<T> protect(AxwayEndpoint endpoint, Mono<T> call) {
+        if (failureThreshold <= 0) {
+            return call;
+        }
+        Circuit circuit = circuits.computeIfAbsent(endpoint.getFamily(), Circuit::new);
+        return Mono.defer(() -> {
+            if (!circuit.tryAcquire()) {
+                return Mono.error(new CircuitOpenException(endpoint.getFamily()));
+            }
+            return call.doOnSuccess(ignored -> circuit.onSuccess())
+                    .doOnError(error -> {
+                        if (countsAsFailure(error)) {
+                            circuit.onFailure();
+                        } else {
+                            circuit.onSuccess();
+                        }
+                    })
+                    .doOnCancel(circuit::onCancel);
+        });
+    }
+
+    public State getState(String family) {
+        Circuit circuit = circuits.get(family);
+        return circuit == null ? State.CLOSED : circuit.getState();
+    }
+
+    public Map<String, Long> metrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        circuits.values().stream()
+                .sorted((a, b) -> a.family.compareTo(b.family))
+                .forEach(circuit -> {
+                    metrics.put("circuit." + circuit.family + ".opened", circuit.opened);
+                    metrics.put("circuit." + circuit.family + ".rejected", circuit.rejected);
+                });
+        return metrics;
+    }
+
+    private boolean countsAsFailure(Throwable error) {
+        // 4xx means the server is up and answering, only outages should trip the circuit
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof AxwayAuthorizationServerClient.AxwayHttpException httpError) {
+                return httpError.getStatusCode() >= 500;
+            }
+            if (current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private final class Circuit {
+        private final String family;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+        private long opened;
+        private long rejected;
+
+        private Circuit(String family) {
+            this.family = family;
+        }
+
+        private synchronized State getState() {
+            return state;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    rejected++;
+                    return false;
+                }
+                transition(State.HALF_OPEN, "tempo de abertura esgotado");
+            }
+            if (state == State.HALF_OPEN) {
+                // a single probe decides whether the endpoint is back
+                if (probeInFlight) {
+                    rejected++;
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        private synchronized void onSuccess() {
+            probeInFlight = false;
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                transition(State.CLOSED, "chamada de teste ok");
+            }
+        }
+
+        private synchronized void onFailure() {
+            probeInFlight = false;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                open("chamada de teste falhou");
+            } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+                open(consecutiveFailures + " falhas consecutivas");
+            }
+        }
+
+        private synchronized void onCancel() {
+            probeInFlight = false;
+        }
+
+        private void open(String reason) {
+            openedAt = System.nanoTime();
+            opened++;
+            transition(State.OPEN, reason);
+        }
+
+        private void transition(State next, String reason) {
+            State previous = state;
+            state = next;
+            if (listener != null) {
+                listener.accept("Circuit breaker [" + family + "]: " + previous + " -> " + next + " | motivo=" + reason);
+            }
+        }
+    }
+
+    public static final class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private CircuitOpenException(String family) {
+            super("circuit open for " + family + " endpoints");
+        }
+    }
+}
@@ -14,42 +14,70 @@ public final class AxwayClientFactory {
     public AuthorizationServerService build(AppConfig config, String environment, Path cacheDir, boolean debug) {
         String asName = "axway";
         AuthorizationServerSettings settings = AuthorizationServerSettings.from(config, asName, environment);
-        AxwayCacheStore cacheStore = buildAxwayCache(cacheDir, asName, environment);
+        AxwayCacheStore cacheStore = buildAxwayCache(config, cacheDir, asName, environment);
         com.company.scopehandler.providers.axway.cache.AxwayScopeCacheStore scopeCacheStore =
-                buildAxwayScopeCache(cacheDir, asName, environment);
+                buildAxwayScopeCache(config, cacheDir, asName, environment);
         int findThreads = config.getInt("batch.threads.max", 8);
         Duration timeout = buildAxwayTimeout(config, asName);
         HttpRequestLogger logger = buildAxwayLogger(config, cacheDir, asName, environment, debug);
         String baseUrl = normalizeBaseUrl(settings.getBaseUrl());
         String authHeader = basicAuth(settings.getUsername(), settings.getPassword());
-        var baseClient = HttpWebClientFactory.build(logger);
+        int maxConnections = config.getInt("as." + asName + ".maxConnections", 500);
+        var baseClient = HttpWebClientFactory.build(logger, maxConnections);
         var webClient = baseClient.mutate()
                 .baseUrl(baseUrl)
                 .defaultHeader("Authorization", authHeader)
                 .defaultHeader("Accept", "application/json")
                 .build();
-        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(webClient, timeout);
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                timeout,
+                AxwayRateLimiter.from(config, asName),
+                AxwayRetryPolicy.from(config, asName),
+                AxwayCircuitBreaker.from(config, asName, message -> {
+                    System.out.println(message);
+                    System.out.flush();
+                })
+        );
         return new AxwayAuthorizationServerService(
                 rpcClient,
                 cacheStore,
                 scopeCacheStore,
-                new com.company.scopehandler.api.services.TaskExecutorService(),
-                findThreads
+                new com.company.scopehandler.api.services.TaskExecutorService(
+                        com.company.scopehandler.api.domain.ExecutorMode.from(config.get("batch.executor", "platform"))),
+                findThreads,
+                AxwayFindEngine.from(config.get("as." + asName + ".find.engine", "index")),
+                config.getInt("as." + asName + ".scopeCache.refreshThreads", 2)
         );
     }
 
-    private AxwayCacheStore buildAxwayCache(Path cacheDir, String asName, String environment) {
+    private AxwayCacheStore buildAxwayCache(AppConfig config, Path cacheDir, String asName, String environment) {
         Path file = cacheDir.resolve("axway-cache-" + asName + "-" + environment + ".json");
-        return new AxwayCacheStore(file, new com.fasterxml.jackson.databind.ObjectMapper());
+        return new AxwayCacheStore(
+                file,
+                new com.fasterxml.jackson.databind.ObjectMapper(),
+                config.getInt("as." + asName + ".cache.flushIntervalMs", 200),
+                config.getInt("as." + asName + ".cache.snapshotSeconds", 60) * 1000L
+        );
     }
 
-    private com.company.scopehandler.providers.axway.cache.AxwayScopeCacheStore buildAxwayScopeCache(Path cacheDir,
+    private com.company.scopehandler.providers.axway.cache.AxwayScopeCacheStore buildAxwayScopeCache(AppConfig config,
+                                                                                                      Path cacheDir,
                                                                                                       String asName,
                                                                                                       String environment) {
         Path file = cacheDir.resolve("axway-scopes-" + asName + "-" + environment + ".json");
+        int ttlMinutes = config.getInt("as." + asName + ".env." + environment + ".scopeCache.ttlMinutes",
+                config.getInt("as." + asName + ".scopeCache.ttlMinutes", 1440));
+        int staleMinutes = config.getInt("as." + asName + ".env." + environment + ".scopeCache.staleMinutes",
+                config.getInt("as." + asName + ".scopeCache.staleMinutes", 60));
         return new com.company.scopehandler.providers.axway.cache.AxwayScopeCacheStore(
                 file,
-                new com.fasterxml.jackson.databind.ObjectMapper()
+                new com.fasterxml.jackson.databind.ObjectMapper(),
+                config.getInt("as." + asName + ".scopeCache.maxEntries", 200_000),
+                Duration.ofMinutes(ttlMinutes).toMillis(),
+                Duration.ofMinutes(staleMinutes).toMillis(),
+                config.getInt("as." + asName + ".scopeCache.flushIntervalMs", 1000),
+                config.getInt("as." + asName + ".scopeCache.snapshotSeconds", 60) * 1000L
         );
     }
 
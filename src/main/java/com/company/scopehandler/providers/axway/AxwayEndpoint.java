@@ -0,0 +1,32 @@
+package com.company.scopehandler.providers.axway;
+
+public enum AxwayEndpoint {
+    APPLICATION_BY_CLIENT("applicationByClient", "applications", true),
+    APPLICATIONS("applications", "applications", true),
+    APP_OAUTH("oauthClients", "oauth", true),
+    APP_SCOPES_GET("scopesGet", "scope", true),
+    APP_SCOPES_POST("scopesPost", "scope", false),
+    APP_SCOPES_DELETE("scopesDelete", "scope", true);
+
+    private final String configKey;
+    private final String family;
+    private final boolean idempotent;
+
+    AxwayEndpoint(String configKey, String family, boolean idempotent) {
+        this.configKey = configKey;
+        this.family = family;
+        this.idempotent = idempotent;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.scopehandler.providers.axway;
+
+public enum AxwayFindEngine {
+    INDEX,
+    BITSET;
+
+    public static AxwayFindEngine from(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("find engine is required");
+        }
+        String normalized = value.trim().toLowerCase();
+        return switch (normalized) {
+            case "index" -> INDEX;
+            case "bitset" -> BITSET;
+            default -> throw new IllegalArgumentException("invalid find engine: " + value);
+        };
+    }
+}
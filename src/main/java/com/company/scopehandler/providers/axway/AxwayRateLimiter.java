@@ -0,0 +1,84 @@
+package com.company.scopehandler.providers.axway;
+
+import com.company.scopehandler.api.config.AppConfig;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class AxwayRateLimiter {
+    private final TokenBucket global;
+    private final Map<AxwayEndpoint, TokenBucket> endpoints;
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    public AxwayRateLimiter(double perSecond, int burst, Map<AxwayEndpoint, Double> endpointPerSecond) {
+        this.global = perSecond > 0 ? new TokenBucket(perSecond, burst) : null;
+        this.endpoints = new EnumMap<>(AxwayEndpoint.class);
+        if (endpointPerSecond != null) {
+            endpointPerSecond.forEach((endpoint, rate) -> {
+                if (rate != null && rate > 0) {
+                    endpoints.put(endpoint, new TokenBucket(rate, burst));
+                }
+            });
+        }
+    }
+
+    public static AxwayRateLimiter disabled() {
+        return new AxwayRateLimiter(0, 1, Map.of());
+    }
+
+    public static AxwayRateLimiter from(AppConfig config, String asName) {
+        String prefix = "as." + asName + ".rateLimit.";
+        Map<AxwayEndpoint, Double> overrides = new EnumMap<>(AxwayEndpoint.class);
+        for (AxwayEndpoint endpoint : AxwayEndpoint.values()) {
+            String value = config.get(prefix + endpoint.getConfigKey() + ".perSecond", null);
+            if (value != null && !value.isBlank()) {
+                overrides.put(endpoint, Double.parseDouble(value.trim()));
+            }
+        }
+        return new AxwayRateLimiter(
+                Double.parseDouble(config.get(prefix + "perSecond", "0").trim()),
+                config.getInt(prefix + "burst", 1),
+                overrides
+        );
+    }
+
+    public Mono<Void> acquire(AxwayEndpoint endpoint) {
+        if (global == null && endpoints.isEmpty()) {
+            return Mono.empty();
+        }
+        // the global permit is only taken once the endpoint slot is reached, so a request held back by its
+        // own endpoint does not burn a global permit that another endpoint could have used meanwhile
+        return Mono.defer(() -> await(reserveEndpoint(endpoint)))
+                .then(Mono.defer(() -> await(reserveGlobal())));
+    }
+
+    public Map<String, Long> metrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("rateLimit.throttled", throttled.get());
+        metrics.put("rateLimit.waitMs", waitNanos.get() / 1_000_000);
+        return metrics;
+    }
+
+    long reserveEndpoint(AxwayEndpoint endpoint) {
+        TokenBucket bucket = endpoints.get(endpoint);
+        return bucket != null ? bucket.reserve() : 0L;
+    }
+
+    long reserveGlobal() {
+        return global != null ? global.reserve() : 0L;
+    }
+
+    private Mono<Void> await(long wait) {
+        if (wait <= 0) {
+            return Mono.empty();
+        }
+        throttled.incrementAndGet();
+        waitNanos.addAndGet(wait);
+        return Mono.delay(Duration.ofNanos(wait)).then();
+    }
+}
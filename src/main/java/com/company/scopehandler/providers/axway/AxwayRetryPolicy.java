@@ -0,0 +1,144 @@
+package com.company.scopehandler.providers.axway;
+
+import com.company.scopehandler.api.config.AppConfig;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class AxwayRetryPolicy {
+    public static final String RETRY_COUNTER = AxwayRetryPolicy.class.getName() + ".retries";
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final double budgetRatio;
+    private final int budgetMinRetries;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    public AxwayRetryPolicy(int maxAttempts,
+                            long baseDelayMs,
+                            long maxDelayMs,
+                            long maxRetryAfterMs,
+                            double budgetRatio,
+                            int budgetMinRetries) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1L, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.budgetRatio = Math.max(0d, budgetRatio);
+        this.budgetMinRetries = Math.max(0, budgetMinRetries);
+    }
+
+    public static AxwayRetryPolicy disabled() {
+        return new AxwayRetryPolicy(1, 1, 1, 0, 0, 0);
+    }
+
+    public static AxwayRetryPolicy from(AppConfig config, String asName) {
+        String prefix = "as." + asName + ".retry.";
+        return new AxwayRetryPolicy(
+                config.getInt(prefix + "maxAttempts", 3),
+                config.getInt(prefix + "baseDelayMs", 100),
+                config.getInt(prefix + "maxDelayMs", 5000),
+                config.getInt(prefix + "maxRetryAfterMs", 30000),
+                Double.parseDouble(config.get(prefix + "budgetRatio", "0.1")),
+                config.getInt(prefix + "budgetMinRetries", 10)
+        );
+    }
+
+    public <T> Mono<T> apply(AxwayEndpoint endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+            return attempt(endpoint, call, 1, baseDelayMs);
+        });
+    }
+
+    public Map<String, Long> metrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("retry.requests", requests.get());
+        metrics.put("retry.retries", retries.get());
+        metrics.put("retry.budgetExhausted", budgetExhausted.get());
+        return metrics;
+    }
+
+    private <T> Mono<T> attempt(AxwayEndpoint endpoint, Mono<T> call, int attempt, long previousDelayMs) {
+        return call.onErrorResume(error -> {
+            if (attempt >= maxAttempts || !isRetryable(endpoint, error)) {
+                return Mono.error(error);
+            }
+            long retryAfter = retryAfterMs(error);
+            if (retryAfter > maxRetryAfterMs) {
+                return Mono.error(error);
+            }
+            if (!tryAcquireBudget()) {
+                budgetExhausted.incrementAndGet();
+                return Mono.error(error);
+            }
+            long delay = Math.max(nextDelay(previousDelayMs), retryAfter);
+            return Mono.deferContextual(context -> {
+                        context.<AtomicInteger>getOrEmpty(RETRY_COUNTER).ifPresent(AtomicInteger::incrementAndGet);
+                        return Mono.delay(Duration.ofMillis(delay));
+                    })
+                    .then(Mono.defer(() -> attempt(endpoint, call, attempt + 1, delay)));
+        });
+    }
+
+    private long nextDelay(long previousDelayMs) {
+        // decorrelated jitter: random between the base delay and 3x the previous one, capped
+        long upper = Math.max(baseDelayMs + 1, Math.min(maxDelayMs, previousDelayMs * 3));
+        return Math.min(maxDelayMs, ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1));
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        long allowed = (long) (requests.get() * budgetRatio) + budgetMinRetries;
+        if (retries.get() >= allowed) {
+            return false;
+        }
+        retries.incrementAndGet();
+        return true;
+    }
+
+    private boolean isRetryable(AxwayEndpoint endpoint, Throwable error) {
+        int statusCode = statusCodeOf(error);
+        if (!endpoint.isIdempotent()) {
+            // the server did not process the request on these codes, so a POST is safe to repeat
+            return statusCode == 429 || statusCode == 503;
+        }
+        return statusCode == 429 || statusCode >= 500 || isTimeout(error);
+    }
+
+    private boolean isTimeout(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int statusCodeOf(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof AxwayAuthorizationServerClient.AxwayHttpException httpError) {
+                return httpError.getStatusCode();
+            }
+        }
+        return -1;
+    }
+
+    private long retryAfterMs(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof AxwayAuthorizationServerClient.AxwayHttpException httpError) {
+                return Math.max(0L, httpError.getRetryAfterMs());
+            }
+        }
+        return 0L;
+    }
+}
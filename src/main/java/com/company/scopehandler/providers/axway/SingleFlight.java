@@ -0,0 +1,43 @@
+package com.company.scopehandler.providers.axway;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            Flight<V> created = new Flight<>();
+            Mono<V> flight = inFlight.computeIfAbsent(key, ignored -> {
+                created.mono = loader.get()
+                        .doFinally(signal -> inFlight.remove(key, created.mono))
+                        .cache();
+                return created.mono;
+            });
+            if (flight != created.mono) {
+                coalesced.incrementAndGet();
+            }
+            return flight;
+        });
+    }
+
+    long getCalls() {
+        return calls.get();
+    }
+
+    long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private static final class Flight<V> {
+        private Mono<V> mono;
+    }
+}
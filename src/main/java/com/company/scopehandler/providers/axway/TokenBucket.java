@@ -0,0 +1,24 @@
+package com.company.scopehandler.providers.axway;
+
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private long nextFreeNanos;
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1L);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    synchronized long reserve() {
+        // the permit is taken now and the caller waits for its slot, so callers are served in arrival order
+        long now = System.nanoTime();
+        long wait = Math.max(0L, nextFreeNanos - toleranceNanos - now);
+        nextFreeNanos = Math.max(nextFreeNanos, now) + intervalNanos;
+        return wait;
+    }
+}
@@ -1,45 +1,247 @@
 package com.company.scopehandler.providers.axway.cache;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public final class AxwayCacheStore implements AutoCloseable {
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MS = 60_000;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+    // journals of stores still open in this JVM; any other journal of this pid was left by a previous run
+    private static final Set<Path> OPEN_JOURNALS = ConcurrentHashMap.newKeySet();
 
-public final class AxwayCacheStore {
     private final Path file;
+    private final Path journalFile;
     private final ObjectMapper mapper;
     private final Map<String, String> clientToAppId;
+    private final Map<String, Set<String>> appToClientIds = new ConcurrentHashMap<>();
+    private final Queue<Delta> pending = new ConcurrentLinkedQueue<>();
+    private final long snapshotIntervalNanos;
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Object ioLock = new Object();
+    private BufferedWriter journal;
+    private long journaledSinceSnapshot;
+    private long lastSnapshotNanos = System.nanoTime();
+    private volatile IllegalStateException writeFailure;
+
     public AxwayCacheStore(Path file, ObjectMapper mapper) {
+        this(file, mapper, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_SNAPSHOT_INTERVAL_MS);
+    }
+
+    public AxwayCacheStore(Path file, ObjectMapper mapper, long flushIntervalMs, long snapshotIntervalMs) {
         this.file = file;
+        // one journal per store, so processes and stores sharing the cache directory never interleave lines
+        this.journalFile = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid()
+                + "-" + INSTANCES.incrementAndGet() + ".journal");
         this.mapper = mapper;
         AxwayCacheData data = load(file, mapper);
         this.clientToAppId = new ConcurrentHashMap<>(data.getClientToAppId());
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, snapshotIntervalMs));
+        List<Path> orphans = new ArrayList<>();
+        long replayed = 0;
+        for (Path journal : journals(file)) {
+            // journals of running processes are merged on read; those of finished or interrupted runs are folded
+            replayed += replay(journal, mapper, clientToAppId);
+            if (isOrphan(journal, file)) {
+                orphans.add(journal);
+            }
+        }
+        if (!orphans.isEmpty()) {
+            journaledSinceSnapshot = Math.max(1, replayed);
+            snapshot(orphans);
+        }
+        clientToAppId.forEach((clientId, appId) -> index(clientId, appId, null));
+        OPEN_JOURNALS.add(journalFile.toAbsolutePath().normalize());
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "axway-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, flushIntervalMs);
+        writer.scheduleWithFixedDelay(this::writeBehind, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     public String getAppId(String clientId) {
         return clientToAppId.get(clientId);
     }
 
+    public Set<String> getClientIds(Set<String> appIds) {
+        Set<String> clientIds = new LinkedHashSet<>();
+        for (String appId : appIds) {
+            Set<String> indexed = appToClientIds.get(appId);
+            if (indexed == null) {
+                continue;
+            }
+            for (String clientId : indexed) {
+                // a racing remap may leave the client under its old app for a moment; the forward map decides
+                if (appId.equals(clientToAppId.get(clientId))) {
+                    clientIds.add(clientId);
+                }
+            }
+        }
+        return clientIds;
+    }
+
     public void putAppId(String clientId, String appId) {
-        clientToAppId.put(clientId, appId);
-        persist();
+        String previous = clientToAppId.put(clientId, appId);
+        if (!appId.equals(previous)) {
+            index(clientId, appId, previous);
+            pending.offer(new Delta(clientId, appId));
+        }
     }
 
-    private synchronized void persist() {
+    public void putAppIds(Map<String, String> appIds) {
+        synchronized (ioLock) {
+            // deltas queued before are already in the map, so the snapshot below covers them
+            pending.clear();
+            appIds.forEach((clientId, appId) -> index(clientId, appId, clientToAppId.put(clientId, appId)));
+            journaledSinceSnapshot = Math.max(1, journaledSinceSnapshot);
+            snapshot(List.of());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        writer.shutdown();
         try {
-            Files.createDirectories(file.getParent());
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            synchronized (ioLock) {
+                drainToJournal();
+                snapshot(List.of());
+                closeJournal();
+            }
+        } finally {
+            OPEN_JOURNALS.remove(journalFile.toAbsolutePath().normalize());
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void writeBehind() {
+        try {
+            synchronized (ioLock) {
+                drainToJournal();
+                if (journaledSinceSnapshot > 0 && System.nanoTime() - lastSnapshotNanos >= snapshotIntervalNanos) {
+                    snapshot(List.of());
+                }
+            }
+        } catch (IllegalStateException e) {
+            // keeps the writer alive; the failure surfaces on close
+            writeFailure = e;
+        }
+    }
+
+    private void drainToJournal() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (journal == null) {
+                Files.createDirectories(journalFile.getParent());
+                journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            Delta delta;
+            while ((delta = pending.poll()) != null) {
+                journal.write(mapper.writeValueAsString(Map.of("clientId", delta.clientId(), "appId", delta.appId())));
+                journal.newLine();
+                journaledSinceSnapshot++;
+            }
+            journal.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write Axway cache journal: " + journalFile, e);
+        }
+    }
+
+    private void snapshot(List<Path> foldedJournals) {
+        if (journaledSinceSnapshot == 0) {
+            return;
+        }
+        CacheFileLock fileLock = CacheFileLock.acquire(file);
+        try {
+            // merge-on-write: entries other processes saved since this one loaded are kept, and picked up here too
+            load(file, mapper).getClientToAppId().forEach((clientId, appId) -> {
+                if (clientToAppId.putIfAbsent(clientId, appId) == null) {
+                    index(clientId, appId, null);
+                }
+            });
+            // every delta already in the journal was put in the map before it was queued, so the copy covers it
             AxwayCacheData data = new AxwayCacheData();
             data.getClientToAppId().putAll(clientToAppId);
-            String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
-            Files.writeString(file, json, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.createDirectories(file.getParent());
+            mapper.writeValue(temp.toFile(), data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            closeJournal();
+            Files.deleteIfExists(journalFile);
+            for (Path journal : foldedJournals) {
+                Files.deleteIfExists(journal);
+            }
         } catch (IOException e) {
             throw new IllegalStateException("Failed to write Axway cache: " + file, e);
+        } finally {
+            fileLock.close();
+        }
+        journaledSinceSnapshot = 0;
+        lastSnapshotNanos = System.nanoTime();
+    }
+
+    private void index(String clientId, String appId, String previous) {
+        if (previous != null && !previous.equals(appId)) {
+            appToClientIds.computeIfPresent(previous, (key, clientIds) -> {
+                clientIds.remove(clientId);
+                return clientIds.isEmpty() ? null : clientIds;
+            });
+        }
+        appToClientIds.compute(appId, (key, clientIds) -> {
+            Set<String> updated = clientIds != null ? clientIds : ConcurrentHashMap.newKeySet();
+            updated.add(clientId);
+            return updated;
+        });
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to close Axway cache journal: " + journalFile, e);
+        } finally {
+            journal = null;
         }
     }
 
@@ -57,4 +259,72 @@ public final class AxwayCacheStore {
             throw new IllegalStateException("Failed to read Axway cache: " + file, e);
         }
     }
+
+    private static List<Path> journals(Path file) {
+        String prefix = file.getFileName() + ".";
+        if (!Files.isDirectory(file.getParent())) {
+            return List.of();
+        }
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            return siblings
+                    .filter(path -> path.getFileName().toString().startsWith(prefix)
+                            && path.getFileName().toString().endsWith(".journal"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list Axway cache journals: " + file, e);
+        }
+    }
+
+    private static boolean isOrphan(Path journal, Path file) {
+        String name = journal.getFileName().toString();
+        int prefixLength = file.getFileName().toString().length();
+        if (name.length() == prefixLength + ".journal".length()) {
+            // the single journal written by older versions
+            return true;
+        }
+        String middle = name.substring(prefixLength + 1, name.length() - ".journal".length());
+        int dash = middle.indexOf('-');
+        try {
+            long pid = Long.parseLong(dash < 0 ? middle : middle.substring(0, dash));
+            if (pid == ProcessHandle.current().pid()) {
+                return !OPEN_JOURNALS.contains(journal.toAbsolutePath().normalize());
+            }
+            return ProcessHandle.of(pid).map(process -> !process.isAlive()).orElse(true);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long replay(Path journalFile, ObjectMapper mapper, Map<String, String> target) {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = mapper.readTree(line);
+                } catch (IOException e) {
+                    // torn last line from a crash mid-write
+                    break;
+                }
+                if (node.hasNonNull("clientId") && node.hasNonNull("appId")) {
+                    target.put(node.get("clientId").asText(), node.get("appId").asText());
+                    replayed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read Axway cache journal: " + journalFile, e);
+        }
+        return replayed;
+    }
+
+    private record Delta(String clientId, String appId) {
+    }
 }
@@ -12,10 +12,21 @@ public final class AxwayScopeCacheData {
     @JsonProperty("appScopes")
     private Map<String, AxwayScopeCacheEntry> appScopes = new HashMap<>();
 
+    @JsonProperty("completeAt")
+    private long completeAt;
+
     public Map<String, AxwayScopeCacheEntry> getAppScopes() {
         return appScopes;
     }
 
+    public long getCompleteAt() {
+        return completeAt;
+    }
+
+    public void setCompleteAt(long completeAt) {
+        this.completeAt = completeAt;
+    }
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static final class AxwayScopeCacheEntry {
         @JsonProperty("timestamp")
@@ -24,12 +35,28 @@ public final class AxwayScopeCacheData {
         @JsonProperty("scopes")
         private List<String> scopes;
 
+        @JsonProperty("scopeIds")
+        private Map<String, String> scopeIds;
+
+        @JsonProperty("version")
+        private long version;
+
         public AxwayScopeCacheEntry() {
         }
 
         public AxwayScopeCacheEntry(long timestamp, List<String> scopes) {
+            this(timestamp, scopes, null);
+        }
+
+        public AxwayScopeCacheEntry(long timestamp, List<String> scopes, Map<String, String> scopeIds) {
+            this(timestamp, scopes, scopeIds, 0);
+        }
+
+        public AxwayScopeCacheEntry(long timestamp, List<String> scopes, Map<String, String> scopeIds, long version) {
             this.timestamp = timestamp;
             this.scopes = scopes;
+            this.scopeIds = scopeIds;
+            this.version = version;
         }
 
         public long getTimestamp() {
@@ -39,5 +66,13 @@ public final class AxwayScopeCacheData {
         public List<String> getScopes() {
             return scopes;
         }
+
+        public Map<String, String> getScopeIds() {
+            return scopeIds;
+        }
+
+        public long getVersion() {
+            return version;
+        }
     }
 }
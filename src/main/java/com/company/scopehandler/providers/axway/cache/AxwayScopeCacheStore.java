@@ -1,62 +1,712 @@
 package com.company.scopehandler.providers.axway.cache;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public final class AxwayScopeCacheStore implements AutoCloseable {
+    private static final int DEFAULT_MAX_ENTRIES = 200_000;
+    private static final long DEFAULT_TTL_MS = 24L * 60L * 60L * 1000L;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MS = 60_000;
+    private static final int MAX_ABSENT_MUTATIONS = 10_000;
+    private static final int MAX_PENDING_READS = 4096;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+    // journals of stores still open in this JVM; any other journal of this pid was left by a previous run
+    private static final Set<Path> OPEN_JOURNALS = ConcurrentHashMap.newKeySet();
 
-public final class AxwayScopeCacheStore {
     private final Path file;
+    private final Path journalFile;
     private final ObjectMapper mapper;
-    private final Map<String, AxwayScopeCacheData.AxwayScopeCacheEntry> appScopes;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    // lookups read the map without locking; every write and the index below go through lock
+    private final Map<String, AxwayScopeCacheData.AxwayScopeCacheEntry> appScopes = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // LRU order kept apart from the entries; reads are buffered and applied on the next write
+    private final LinkedHashMap<String, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final Queue<String> readBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingReads = new AtomicInteger();
+    // scope -> appIds over the entries above, kept in step under the same lock
+    private final Map<String, Set<String>> scopeIndex = new HashMap<>();
+    private long completeAt;
+    // built on the first bitset FIND and dropped on any change to the entries
+    private ScopeBitsetMatrix matrix;
+    // every write takes the next version; listings started before a newer write are discarded
+    private long clock;
+    // tombstones: version of the last local write or drop of an entry that is no longer in the map
+    private final LinkedHashMap<String, Long> absentMutations = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > Math.max(MAX_ABSENT_MUTATIONS, maxEntries);
+        }
+    };
+    private final Queue<Delta> pending = new ConcurrentLinkedQueue<>();
+    private final long snapshotIntervalNanos;
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Object ioLock = new Object();
+    private BufferedWriter journal;
+    private long journaledSinceSnapshot;
+    private long lastSnapshotNanos = System.nanoTime();
+    private long lastMergeNanos = System.nanoTime();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private volatile IllegalStateException writeFailure;
+    private FileTime lastSeenModified;
 
     public AxwayScopeCacheStore(Path file, ObjectMapper mapper) {
+        this(file, mapper, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MS, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public AxwayScopeCacheStore(Path file, ObjectMapper mapper, int maxEntries, long ttlMillis, long flushIntervalMs) {
+        this(file, mapper, maxEntries, ttlMillis, 0, flushIntervalMs);
+    }
+
+    public AxwayScopeCacheStore(Path file,
+                                ObjectMapper mapper,
+                                int maxEntries,
+                                long ttlMillis,
+                                long staleMillis,
+                                long flushIntervalMs) {
+        this(file, mapper, maxEntries, ttlMillis, staleMillis, flushIntervalMs, DEFAULT_SNAPSHOT_INTERVAL_MS);
+    }
+
+    public AxwayScopeCacheStore(Path file,
+                                ObjectMapper mapper,
+                                int maxEntries,
+                                long ttlMillis,
+                                long staleMillis,
+                                long flushIntervalMs,
+                                long snapshotIntervalMs) {
         this.file = file;
+        // one journal per store, so processes (and stores) sharing the cache directory never interleave lines
+        this.journalFile = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid()
+                + "-" + INSTANCES.incrementAndGet() + ".journal");
         this.mapper = mapper;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.maxStaleMillis = ttlMillis + Math.max(0, staleMillis);
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, snapshotIntervalMs));
+        this.lastSeenModified = lastModified(file);
         AxwayScopeCacheData data = load(file, mapper);
-        this.appScopes = new ConcurrentHashMap<>(data.getAppScopes());
+        Map<String, Long> removed = new HashMap<>();
+        List<Path> orphans = new ArrayList<>();
+        long replayed = 0;
+        for (Path journal : journals(file)) {
+            // journals of running processes are merged on read; those of finished or interrupted runs are folded
+            replayed += replay(journal, mapper, data.getAppScopes(), removed);
+            if (isOrphan(journal, file)) {
+                orphans.add(journal);
+            }
+        }
+        loadInto(data, removed);
+        if (!orphans.isEmpty()) {
+            journaledSinceSnapshot = Math.max(1, replayed);
+            snapshot(orphans);
+        }
+        OPEN_JOURNALS.add(journalFile.toAbsolutePath().normalize());
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "axway-scope-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, flushIntervalMs);
+        writer.scheduleWithFixedDelay(this::writeBehind, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public List<String> getScopes(String appId) {
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = lookup(appId, false);
+        return entry == null ? null : scopesOf(entry);
+    }
+
+    public ScopeLookup lookupScopes(String appId) {
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = lookup(appId, true);
+        return entry == null ? null : new ScopeLookup(scopesOf(entry), isExpired(entry));
+    }
+
+    public Map<String, String> getScopeIds(String appId) {
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = lookup(appId, false);
+        if (entry == null || entry.getScopeIds() == null) {
+            return null;
+        }
+        return Collections.unmodifiableMap(entry.getScopeIds());
+    }
+
+    public void addScope(String appId, String scope, String scopeId) {
+        // write-through keeps the entry's original timestamp, the rest of the listing is no fresher than before
+        update(appId, entry -> {
+            List<String> scopes = entry.getScopes() == null ? new ArrayList<>() : new ArrayList<>(entry.getScopes());
+            if (!scopes.contains(scope)) {
+                scopes.add(scope);
+            }
+            Map<String, String> ids = entry.getScopeIds() == null ? null : new LinkedHashMap<>(entry.getScopeIds());
+            if (ids != null) {
+                if (scopeId != null) {
+                    ids.put(scope, scopeId);
+                } else {
+                    ids.remove(scope);
+                }
+            }
+            return new AxwayScopeCacheData.AxwayScopeCacheEntry(entry.getTimestamp(), scopes, ids);
+        });
+    }
+
+    public void removeScope(String appId, String scope) {
+        update(appId, entry -> {
+            List<String> scopes = entry.getScopes() == null ? new ArrayList<>() : new ArrayList<>(entry.getScopes());
+            scopes.remove(scope);
+            Map<String, String> ids = entry.getScopeIds() == null ? null : new LinkedHashMap<>(entry.getScopeIds());
+            if (ids != null) {
+                ids.remove(scope);
+            }
+            return new AxwayScopeCacheData.AxwayScopeCacheEntry(entry.getTimestamp(), scopes, ids);
+        });
+    }
+
+    public void evict(String appId) {
+        synchronized (lock) {
+            AxwayScopeCacheData.AxwayScopeCacheEntry removed = appScopes.remove(appId);
+            if (removed != null) {
+                accessOrder.remove(appId);
+                unindex(appId, removed);
+                completeAt = 0;
+                // keeps the copy other processes still have on disk from coming back on the next merge
+                long version = nextVersion();
+                absentMutations.put(appId, version);
+                pending.offer(new Delta(appId, null, version));
+            }
+        }
+    }
+
+    public void putScopes(String appId, List<String> scopes) {
+        putScopes(appId, scopes, null);
+    }
+
+    public void putScopes(String appId, List<String> scopes, Map<String, String> scopeIds) {
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = new AxwayScopeCacheData.AxwayScopeCacheEntry(
+                System.currentTimeMillis(), scopes, scopeIds == null ? null : new LinkedHashMap<>(scopeIds));
+        synchronized (lock) {
+            journal(appId, replace(appId, entry));
+        }
     }
 
-    public List<String> getScopes(String appId, long ttlMillis) {
+    public long versionToken() {
+        synchronized (lock) {
+            return clock;
+        }
+    }
+
+    public boolean putScopesIfUnchanged(String appId, List<String> scopes, Map<String, String> scopeIds, long token) {
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = new AxwayScopeCacheData.AxwayScopeCacheEntry(
+                System.currentTimeMillis(), scopes, scopeIds == null ? null : new LinkedHashMap<>(scopeIds));
+        synchronized (lock) {
+            AxwayScopeCacheData.AxwayScopeCacheEntry current = appScopes.get(appId);
+            long lastWrite = current != null ? current.getVersion() : absentMutations.getOrDefault(appId, 0L);
+            if (lastWrite > token) {
+                // an associate/dissociate landed after this listing was requested; the cached entry already has it
+                conflicts.incrementAndGet();
+                return false;
+            }
+            absentMutations.remove(appId);
+            journal(appId, replace(appId, entry));
+        }
+        return true;
+    }
+
+    public void putAllScopes(Map<String, List<String>> scopes,
+                             Map<String, Map<String, String>> scopeIds,
+                             boolean complete) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            if (complete) {
+                // a full sweep replaces the listing, so applications gone from the AS leave the index too
+                long version = nextVersion();
+                for (String appId : appScopes.keySet()) {
+                    if (!scopes.containsKey(appId)) {
+                        // newer than any copy on disk, so merge-on-write and merge-on-read cannot bring it back
+                        absentMutations.put(appId, version);
+                    }
+                }
+                appScopes.clear();
+                accessOrder.clear();
+                scopeIndex.clear();
+                matrix = null;
+            }
+            for (Map.Entry<String, List<String>> entry : scopes.entrySet()) {
+                Map<String, String> ids = scopeIds.get(entry.getKey());
+                replace(entry.getKey(), new AxwayScopeCacheData.AxwayScopeCacheEntry(
+                        now, entry.getValue(), ids == null ? null : new LinkedHashMap<>(ids)));
+            }
+            if (complete && appScopes.size() == scopes.size()) {
+                completeAt = now;
+            }
+        }
+        synchronized (ioLock) {
+            // deltas queued before are already in the map, so the snapshot below covers them
+            pending.clear();
+            journaledSinceSnapshot = Math.max(1, journaledSinceSnapshot);
+            snapshot(List.of());
+        }
+    }
+
+    public Set<String> findApplications(List<String> scopes, boolean any) {
+        synchronized (lock) {
+            if (!isCompleteAndFresh()) {
+                return null;
+            }
+            if (scopes == null || scopes.isEmpty()) {
+                return new HashSet<>(appScopes.keySet());
+            }
+            Set<String> result = null;
+            for (String scope : scopes) {
+                Set<String> apps = scopeIndex.getOrDefault(scope, Set.of());
+                if (result == null) {
+                    result = new HashSet<>(apps);
+                } else if (any) {
+                    result.addAll(apps);
+                } else {
+                    result.retainAll(apps);
+                }
+                if (!any && result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+    }
+
+    public Set<String> matchApplications(List<String> scopes, boolean any) {
+        ScopeBitsetMatrix current;
+        synchronized (lock) {
+            if (!isCompleteAndFresh()) {
+                return null;
+            }
+            if (matrix == null) {
+                matrix = ScopeBitsetMatrix.build(appScopes);
+            }
+            current = matrix;
+        }
+        // the matrix is immutable, so matching runs outside the lock
+        return current.match(scopes, any);
+    }
+
+    public Map<String, Long> metrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("scopeCache.hits", hits.get());
+        metrics.put("scopeCache.misses", misses.get());
+        metrics.put("scopeCache.evictions", evictions.get());
+        metrics.put("scopeCache.expirations", expirations.get());
+        metrics.put("scopeCache.staleHits", staleHits.get());
+        metrics.put("scopeCache.conflicts", conflicts.get());
+        metrics.put("scopeCache.flushes", flushes.get());
+        metrics.put("scopeCache.size", (long) appScopes.size());
+        synchronized (lock) {
+            metrics.put("scopeCache.indexedScopes", (long) scopeIndex.size());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            synchronized (ioLock) {
+                drainToJournal();
+                snapshot(List.of());
+                closeJournal();
+            }
+        } catch (IllegalStateException e) {
+            writeFailure = e;
+        } finally {
+            OPEN_JOURNALS.remove(journalFile.toAbsolutePath().normalize());
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private AxwayScopeCacheData.AxwayScopeCacheEntry lookup(String appId, boolean allowStale) {
         AxwayScopeCacheData.AxwayScopeCacheEntry entry = appScopes.get(appId);
         if (entry == null) {
+            misses.incrementAndGet();
             return null;
         }
-        long age = System.currentTimeMillis() - entry.getTimestamp();
-        if (age > ttlMillis) {
+        // lazy expiry: entries past the staleness bound are dropped when read instead of by a sweeper
+        if (isTooStale(entry)) {
+            synchronized (lock) {
+                if (appScopes.remove(appId, entry)) {
+                    accessOrder.remove(appId);
+                    unindex(appId, entry);
+                    completeAt = 0;
+                    absentMutations.put(appId, entry.getVersion());
+                    expirations.incrementAndGet();
+                }
+            }
+            misses.incrementAndGet();
             return null;
         }
+        recordAccess(appId);
+        if (isExpired(entry)) {
+            if (!allowStale) {
+                misses.incrementAndGet();
+                return null;
+            }
+            staleHits.incrementAndGet();
+            return entry;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    private void recordAccess(String appId) {
+        // a full buffer drops the read, so under heavy reads the LRU order is approximate
+        if (pendingReads.incrementAndGet() <= MAX_PENDING_READS) {
+            readBuffer.offer(appId);
+        } else {
+            pendingReads.decrementAndGet();
+        }
+    }
+
+    private void drainReads() {
+        String appId;
+        while ((appId = readBuffer.poll()) != null) {
+            pendingReads.decrementAndGet();
+            accessOrder.get(appId);
+        }
+    }
+
+    private void update(String appId, UnaryOperator<AxwayScopeCacheData.AxwayScopeCacheEntry> change) {
+        synchronized (lock) {
+            AxwayScopeCacheData.AxwayScopeCacheEntry entry = appScopes.get(appId);
+            if (entry == null) {
+                // nothing to patch, but a listing already in flight must not cache the state before this write
+                absentMutations.put(appId, nextVersion());
+                return;
+            }
+            journal(appId, replace(appId, change.apply(entry)));
+        }
+    }
+
+    private AxwayScopeCacheData.AxwayScopeCacheEntry replace(String appId, AxwayScopeCacheData.AxwayScopeCacheEntry value) {
+        return replace(appId, value, nextVersion());
+    }
+
+    private AxwayScopeCacheData.AxwayScopeCacheEntry replace(String appId,
+                                                             AxwayScopeCacheData.AxwayScopeCacheEntry value,
+                                                             long version) {
+        matrix = null;
+        clock = Math.max(clock, version);
+        AxwayScopeCacheData.AxwayScopeCacheEntry entry = new AxwayScopeCacheData.AxwayScopeCacheEntry(
+                value.getTimestamp(), value.getScopes(), value.getScopeIds(), version);
+        AxwayScopeCacheData.AxwayScopeCacheEntry previous = appScopes.put(appId, entry);
+        if (previous != null) {
+            unindex(appId, previous);
+        }
+        if (entry.getScopes() != null) {
+            for (String scope : entry.getScopes()) {
+                scopeIndex.computeIfAbsent(scope, ignored -> new HashSet<>()).add(appId);
+            }
+        }
+        drainReads();
+        accessOrder.put(appId, Boolean.TRUE);
+        evictOverflow();
+        return entry;
+    }
+
+    private void evictOverflow() {
+        Iterator<String> eldest = accessOrder.keySet().iterator();
+        while (appScopes.size() > maxEntries && eldest.hasNext()) {
+            String appId = eldest.next();
+            eldest.remove();
+            AxwayScopeCacheData.AxwayScopeCacheEntry removed = appScopes.remove(appId);
+            if (removed != null) {
+                evictions.incrementAndGet();
+                unindex(appId, removed);
+                completeAt = 0;
+                // the copy on disk has this same version; only a newer listing may bring the entry back
+                absentMutations.put(appId, removed.getVersion());
+            }
+        }
+    }
+
+    private void unindex(String appId, AxwayScopeCacheData.AxwayScopeCacheEntry entry) {
+        matrix = null;
+        if (entry.getScopes() == null) {
+            return;
+        }
+        for (String scope : entry.getScopes()) {
+            Set<String> apps = scopeIndex.get(scope);
+            if (apps != null && apps.remove(appId) && apps.isEmpty()) {
+                scopeIndex.remove(scope);
+            }
+        }
+    }
+
+    private void journal(String appId, AxwayScopeCacheData.AxwayScopeCacheEntry entry) {
+        pending.offer(new Delta(appId, entry, entry.getVersion()));
+    }
+
+    // hybrid clock: monotonic in this process and close to wall time, so versions from other processes compare
+    private long nextVersion() {
+        clock = Math.max(clock + 1, System.currentTimeMillis());
+        return clock;
+    }
+
+    private boolean isCompleteAndFresh() {
+        return completeAt != 0 && System.currentTimeMillis() - completeAt <= ttlMillis;
+    }
+
+    private boolean isExpired(AxwayScopeCacheData.AxwayScopeCacheEntry entry) {
+        return System.currentTimeMillis() - entry.getTimestamp() > ttlMillis;
+    }
+
+    private boolean isTooStale(AxwayScopeCacheData.AxwayScopeCacheEntry entry) {
+        return System.currentTimeMillis() - entry.getTimestamp() > maxStaleMillis;
+    }
+
+    private static List<String> scopesOf(AxwayScopeCacheData.AxwayScopeCacheEntry entry) {
         List<String> scopes = entry.getScopes();
         return scopes == null ? List.of() : Collections.unmodifiableList(scopes);
     }
 
-    public void putScopes(String appId, List<String> scopes) {
-        AxwayScopeCacheData.AxwayScopeCacheEntry entry =
-                new AxwayScopeCacheData.AxwayScopeCacheEntry(System.currentTimeMillis(), scopes);
-        appScopes.put(appId, entry);
-        persist();
+    private void writeBehind() {
+        try {
+            synchronized (ioLock) {
+                drainToJournal();
+                if (journaledSinceSnapshot > 0 && System.nanoTime() - lastSnapshotNanos >= snapshotIntervalNanos) {
+                    snapshot(List.of());
+                } else {
+                    mergeOnRead();
+                }
+            }
+        } catch (IllegalStateException e) {
+            // keeps the writer alive; the failure surfaces on close
+            writeFailure = e;
+        }
+    }
+
+    // merge-on-read: picks up listings other processes sharing the directory saved meanwhile
+    private void mergeOnRead() {
+        // other processes only rewrite the file once per snapshot interval, so checking more often gains nothing
+        if (System.nanoTime() - lastMergeNanos < snapshotIntervalNanos) {
+            return;
+        }
+        lastMergeNanos = System.nanoTime();
+        FileTime modified = lastModified(file);
+        if (Objects.equals(modified, lastSeenModified)) {
+            return;
+        }
+        // parsing and sorting stay outside the lock; lookups and writers only wait for the merge itself
+        Incoming incoming = prepare(load(file, mapper));
+        synchronized (lock) {
+            merge(incoming);
+        }
+        lastSeenModified = modified;
     }
 
-    private synchronized void persist() {
+    private void drainToJournal() {
+        if (pending.isEmpty()) {
+            return;
+        }
         try {
-            Files.createDirectories(file.getParent());
+            if (journal == null) {
+                Files.createDirectories(journalFile.getParent());
+                journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            Delta delta;
+            while ((delta = pending.poll()) != null) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("appId", delta.appId());
+                if (delta.entry() != null) {
+                    line.put("entry", delta.entry());
+                } else {
+                    line.put("removed", delta.version());
+                }
+                journal.write(mapper.writeValueAsString(line));
+                journal.newLine();
+                journaledSinceSnapshot++;
+            }
+            journal.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write Axway scope cache journal: " + journalFile, e);
+        }
+    }
+
+    private void snapshot(List<Path> foldedJournals) {
+        if (journaledSinceSnapshot == 0) {
+            return;
+        }
+        CacheFileLock fileLock = CacheFileLock.acquire(file);
+        try {
+            // merge-on-write: the file is re-read under the lock, so no process drops another's entries
+            Incoming incoming = prepare(load(file, mapper));
             AxwayScopeCacheData data = new AxwayScopeCacheData();
-            data.getAppScopes().putAll(appScopes);
-            String json = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
-            Files.writeString(file, json, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            synchronized (lock) {
+                merge(incoming);
+                // every delta already in the journal was applied to the map before it was queued, so the copy covers it
+                data.getAppScopes().putAll(appScopes);
+                data.setCompleteAt(completeAt);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.createDirectories(file.getParent());
+            mapper.writeValue(temp.toFile(), data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSeenModified = lastModified(file);
+            closeJournal();
+            Files.deleteIfExists(journalFile);
+            for (Path folded : foldedJournals) {
+                Files.deleteIfExists(folded);
+            }
+            flushes.incrementAndGet();
         } catch (IOException e) {
             throw new IllegalStateException("Failed to write Axway scope cache: " + file, e);
+        } finally {
+            fileLock.close();
+        }
+        journaledSinceSnapshot = 0;
+        lastSnapshotNanos = System.nanoTime();
+        lastMergeNanos = lastSnapshotNanos;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to close Axway scope cache journal: " + journalFile, e);
+        } finally {
+            journal = null;
         }
     }
 
+    private Incoming prepare(AxwayScopeCacheData data) {
+        // oldest first so the LRU order follows the listing age
+        List<Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry>> entries = new ArrayList<>();
+        boolean dropped = false;
+        for (Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entry : data.getAppScopes().entrySet()) {
+            if (entry.getValue() == null || isTooStale(entry.getValue())) {
+                dropped = true;
+            } else {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().getTimestamp()));
+        return new Incoming(entries, dropped, data.getCompleteAt());
+    }
+
+    private void merge(Incoming incoming) {
+        drainReads();
+        long evictedBefore = evictions.get();
+        if (!incoming.dropped() && incoming.completeAt() > completeAt) {
+            dropUnlisted(incoming);
+        }
+        for (Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entry : incoming.entries()) {
+            AxwayScopeCacheData.AxwayScopeCacheEntry value = entry.getValue();
+            AxwayScopeCacheData.AxwayScopeCacheEntry local = appScopes.get(entry.getKey());
+            // a tombstone covers writes, 404 evictions, LRU evictions and lazy-expiry drops alike
+            Long localVersion = local != null ? Long.valueOf(local.getVersion()) : absentMutations.get(entry.getKey());
+            if (localVersion != null && localVersion >= value.getVersion()) {
+                continue;
+            }
+            if (local == null && value.getVersion() < completeAt) {
+                // older than the last complete sweep, which did not list it: the application is gone from the AS
+                continue;
+            }
+            replace(entry.getKey(), value, value.getVersion());
+        }
+        // a complete sweep saved by any process covers this one too, as long as all of it made it in
+        if (!incoming.dropped() && evictions.get() == evictedBefore && incoming.completeAt() > completeAt) {
+            completeAt = incoming.completeAt();
+        }
+    }
+
+    private void dropUnlisted(Incoming incoming) {
+        // a newer complete sweep saved elsewhere did not list these, so the applications are gone from the AS
+        Set<String> listed = new HashSet<>();
+        for (Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entry : incoming.entries()) {
+            listed.add(entry.getKey());
+        }
+        Iterator<Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry>> local = appScopes.entrySet().iterator();
+        while (local.hasNext()) {
+            Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entry = local.next();
+            if (!listed.contains(entry.getKey()) && entry.getValue().getVersion() < incoming.completeAt()) {
+                local.remove();
+                accessOrder.remove(entry.getKey());
+                unindex(entry.getKey(), entry.getValue());
+                absentMutations.put(entry.getKey(), entry.getValue().getVersion());
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void loadInto(AxwayScopeCacheData data, Map<String, Long> removed) {
+        synchronized (lock) {
+            for (Map.Entry<String, Long> entry : removed.entrySet()) {
+                absentMutations.put(entry.getKey(), entry.getValue());
+                clock = Math.max(clock, entry.getValue());
+            }
+            // the index is rebuilt from the entries; it only stays authoritative if none were dropped
+            merge(prepare(data));
+        }
+        evictions.set(0);
+    }
+
     private static AxwayScopeCacheData load(Path file, ObjectMapper mapper) {
         if (file == null || !Files.exists(file)) {
             return new AxwayScopeCacheData();
@@ -71,4 +721,97 @@ public final class AxwayScopeCacheStore {
             throw new IllegalStateException("Failed to read Axway scope cache: " + file, e);
         }
     }
+
+    private static List<Path> journals(Path file) {
+        String prefix = file.getFileName() + ".";
+        if (!Files.isDirectory(file.getParent())) {
+            return List.of();
+        }
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            return siblings
+                    .filter(path -> path.getFileName().toString().startsWith(prefix)
+                            && path.getFileName().toString().endsWith(".journal"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list Axway scope cache journals: " + file, e);
+        }
+    }
+
+    private static boolean isOrphan(Path journal, Path file) {
+        String name = journal.getFileName().toString();
+        String middle = name.substring(file.getFileName().toString().length() + 1, name.length() - ".journal".length());
+        int dash = middle.indexOf('-');
+        try {
+            long pid = Long.parseLong(dash < 0 ? middle : middle.substring(0, dash));
+            if (pid == ProcessHandle.current().pid()) {
+                return !OPEN_JOURNALS.contains(journal.toAbsolutePath().normalize());
+            }
+            return ProcessHandle.of(pid).map(process -> !process.isAlive()).orElse(true);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long replay(Path journalFile,
+                               ObjectMapper mapper,
+                               Map<String, AxwayScopeCacheData.AxwayScopeCacheEntry> target,
+                               Map<String, Long> removed) {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String appId;
+                AxwayScopeCacheData.AxwayScopeCacheEntry entry = null;
+                long version;
+                try {
+                    JsonNode node = mapper.readTree(line);
+                    appId = node.path("appId").asText(null);
+                    if (node.hasNonNull("entry")) {
+                        entry = mapper.treeToValue(node.get("entry"), AxwayScopeCacheData.AxwayScopeCacheEntry.class);
+                        version = entry.getVersion();
+                    } else {
+                        version = node.path("removed").asLong(-1);
+                    }
+                } catch (IOException e) {
+                    // torn last line from a crash mid-write
+                    break;
+                }
+                if (appId == null || version < 0) {
+                    continue;
+                }
+                AxwayScopeCacheData.AxwayScopeCacheEntry current = target.get(appId);
+                long known = Math.max(current == null ? -1 : current.getVersion(), removed.getOrDefault(appId, -1L));
+                if (entry != null) {
+                    if (entry.getVersion() > known) {
+                        target.put(appId, entry);
+                    }
+                } else if (version >= known) {
+                    target.remove(appId);
+                    removed.put(appId, version);
+                }
+                replayed++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read Axway scope cache journal: " + journalFile, e);
+        }
+        return replayed;
+    }
+
+    public record ScopeLookup(List<String> scopes, boolean stale) {
+    }
+
+    private record Incoming(List<Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry>> entries,
+                            boolean dropped,
+                            long completeAt) {
+    }
+
+    private record Delta(String appId, AxwayScopeCacheData.AxwayScopeCacheEntry entry, long version) {
+    }
 }
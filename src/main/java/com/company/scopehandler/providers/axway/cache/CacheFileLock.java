@@ -0,0 +1,67 @@
+package com.company.scopehandler.providers.axway.cache;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class CacheFileLock implements AutoCloseable {
+    // file locks are held per JVM, so writers inside one process queue here first
+    private static final ConcurrentMap<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock localLock;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private CacheFileLock(ReentrantLock localLock, FileChannel channel, FileLock lock) {
+        this.localLock = localLock;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    // exclusive across processes sharing the cache directory; blocks until the other writer is done
+    static CacheFileLock acquire(Path file) {
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        ReentrantLock localLock = LOCAL_LOCKS.computeIfAbsent(lockFile.toAbsolutePath().normalize(),
+                ignored -> new ReentrantLock());
+        localLock.lock();
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(lockFile.getParent());
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            return new CacheFileLock(localLock, channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            localLock.unlock();
+            throw new IllegalStateException("Failed to lock cache: " + lockFile, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            lock.release();
+        } catch (IOException ignored) {
+            // closing the channel releases it anyway
+        } finally {
+            closeQuietly(channel);
+            localLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.company.scopehandler.providers.axway.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class ScopeBitsetMatrix {
+    private static final int SPLIT_ROWS = 4096;
+
+    private final Map<String, Integer> scopeIds;
+    private final String[] appIds;
+    // row r owns words [rowStart[r], rowStart[r + 1]): only non-zero words, sorted by word index
+    private final int[] rowStart;
+    private final int[] wordIndex;
+    private final long[] words;
+
+    private ScopeBitsetMatrix(Map<String, Integer> scopeIds, String[] appIds, int[] rowStart, int[] wordIndex, long[] words) {
+        this.scopeIds = scopeIds;
+        this.appIds = appIds;
+        this.rowStart = rowStart;
+        this.wordIndex = wordIndex;
+        this.words = words;
+    }
+
+    static ScopeBitsetMatrix build(Map<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entries) {
+        Map<String, Integer> scopeIds = new HashMap<>();
+        String[] appIds = new String[entries.size()];
+        int[] rowStart = new int[entries.size() + 1];
+        int[] wordIndex = new int[Math.max(16, entries.size())];
+        long[] words = new long[wordIndex.length];
+        int row = 0;
+        int used = 0;
+        for (Map.Entry<String, AxwayScopeCacheData.AxwayScopeCacheEntry> entry : entries.entrySet()) {
+            appIds[row] = entry.getKey();
+            rowStart[row] = used;
+            List<String> scopes = entry.getValue().getScopes();
+            if (scopes != null && !scopes.isEmpty()) {
+                int[] ids = new int[scopes.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = scopeIds.computeIfAbsent(scopes.get(i), ignored -> scopeIds.size());
+                }
+                Arrays.sort(ids);
+                for (int id : ids) {
+                    int index = id >>> 6;
+                    if (used == rowStart[row] || wordIndex[used - 1] != index) {
+                        if (used == wordIndex.length) {
+                            wordIndex = Arrays.copyOf(wordIndex, used * 2);
+                            words = Arrays.copyOf(words, used * 2);
+                        }
+                        wordIndex[used] = index;
+                        words[used] = 0;
+                        used++;
+                    }
+                    words[used - 1] |= 1L << id;
+                }
+            }
+            row++;
+        }
+        rowStart[row] = used;
+        return new ScopeBitsetMatrix(scopeIds, appIds, rowStart, Arrays.copyOf(wordIndex, used), Arrays.copyOf(words, used));
+    }
+
+    Set<String> match(List<String> scopes, boolean any) {
+        if (scopes == null || scopes.isEmpty()) {
+            return new LinkedHashSet<>(Arrays.asList(appIds));
+        }
+        int[] ids = new int[scopes.size()];
+        int known = 0;
+        for (String scope : scopes) {
+            Integer id = scopeIds.get(scope);
+            if (id != null) {
+                ids[known++] = id;
+            } else if (!any) {
+                // no application holds this scope, so the intersection is empty
+                return new LinkedHashSet<>();
+            }
+        }
+        if (known == 0) {
+            return new LinkedHashSet<>();
+        }
+        Arrays.sort(ids, 0, known);
+        int[] maskIndex = new int[known];
+        long[] mask = new long[known];
+        int maskWords = 0;
+        for (int i = 0; i < known; i++) {
+            int index = ids[i] >>> 6;
+            if (maskWords == 0 || maskIndex[maskWords - 1] != index) {
+                maskIndex[maskWords++] = index;
+            }
+            mask[maskWords - 1] |= 1L << ids[i];
+        }
+        boolean[] hits = new boolean[appIds.length];
+        ForkJoinPool.commonPool().invoke(new MatchTask(this, Arrays.copyOf(maskIndex, maskWords),
+                Arrays.copyOf(mask, maskWords), any, hits, 0, appIds.length));
+        Set<String> result = new LinkedHashSet<>();
+        for (int row = 0; row < hits.length; row++) {
+            if (hits[row]) {
+                result.add(appIds[row]);
+            }
+        }
+        return result;
+    }
+
+    int scopeCount() {
+        return scopeIds.size();
+    }
+
+    private boolean matches(int row, int[] maskIndex, long[] mask, boolean any) {
+        int position = rowStart[row];
+        int end = rowStart[row + 1];
+        for (int m = 0; m < mask.length; m++) {
+            while (position < end && wordIndex[position] < maskIndex[m]) {
+                position++;
+            }
+            long word = position < end && wordIndex[position] == maskIndex[m] ? words[position] : 0L;
+            if (any) {
+                if ((word & mask[m]) != 0) {
+                    return true;
+                }
+            } else if ((word & mask[m]) != mask[m]) {
+                return false;
+            }
+        }
+        return !any;
+    }
+
+    private static final class MatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ScopeBitsetMatrix matrix;
+        private final int[] maskIndex;
+        private final long[] mask;
+        private final boolean any;
+        private final boolean[] hits;
+        private final int from;
+        private final int to;
+
+        private MatchTask(ScopeBitsetMatrix matrix, int[] maskIndex, long[] mask, boolean any, boolean[] hits, int from, int to) {
+            this.matrix = matrix;
+            this.maskIndex = maskIndex;
+            this.mask = mask;
+            this.any = any;
+            this.hits = hits;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_ROWS) {
+                for (int row = from; row < to; row++) {
+                    hits[row] = matrix.matches(row, maskIndex, mask, any);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MatchTask(matrix, maskIndex, mask, any, hits, from, middle),
+                    new MatchTask(matrix, maskIndex, mask, any, hits, middle, to));
+        }
+    }
+}
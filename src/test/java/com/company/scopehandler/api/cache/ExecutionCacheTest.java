@@ -0,0 +1,147 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionCacheTest {
+
+    @Test
+    void loadsKeysAcrossReadChunks(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cache.txt");
+        StringBuilder content = new StringBuilder("# resume cache\n");
+        for (int i = 0; i < 20_000; i++) {
+            content.append("ADD|client-").append(i).append("|scope").append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        String longClient = "c".repeat(100_000);
+        content.append("  ADD|").append(longClient).append("|scope\t\n");
+        content.append("REMOVE|last|scope");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        try (ExecutionCache cache = ExecutionCache.load(file, true, JournalSettings.immediate(), true)) {
+            for (int i = 0; i < 20_000; i++) {
+                assertTrue(cache.isExecuted(Mode.ADD, "client-" + i, "scope"));
+            }
+            assertTrue(cache.isExecuted(Mode.ADD, longClient, "scope"));
+            assertTrue(cache.isExecuted(Mode.REMOVE, "last", "scope"));
+            assertFalse(cache.isExecuted(Mode.ADD, "client-20000", "scope"));
+        }
+    }
+
+    @Test
+    void recordsEachKeyOnceUnderContention(@TempDir Path tempDir) throws Exception {
+        int threads = 64;
+        int clients = 200;
+        Path file = tempDir.resolve("cache.txt");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutionCache cache = ExecutionCache.load(file, true)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < clients; i++) {
+                        String clientId = "client-" + ((i + offset) % clients);
+                        cache.isExecuted(Mode.ADD, clientId, "scope");
+                        cache.record(Mode.ADD, clientId, "scope");
+                        assertTrue(cache.isExecuted(Mode.ADD, clientId, "scope"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(clients, lines.size());
+        assertEquals(clients, new HashSet<>(lines).size());
+        try (ExecutionCache reloaded = ExecutionCache.load(file, true)) {
+            assertTrue(reloaded.isExecuted(Mode.ADD, "client-0", "scope"));
+            assertTrue(reloaded.isExecuted(Mode.ADD, "client-199", "scope"));
+        }
+    }
+
+    @Test
+    void groupCommitFlushesByCountAndOnClose(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cache.txt");
+        try (ExecutionCache cache = ExecutionCache.load(file, true, new JournalSettings(true, 5, 60_000, false))) {
+            for (int i = 0; i < 5; i++) {
+                cache.record(Mode.ADD, "client-" + i, "scope");
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (Files.readAllLines(file, StandardCharsets.UTF_8).size() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(5, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+
+            cache.record(Mode.ADD, "client-5", "scope");
+            cache.record(Mode.ADD, "client-6", "scope");
+            assertEquals(5, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        }
+
+        assertEquals(7, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void reloadsKeysWrittenByPreviousRuns(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cache.txt");
+        Files.writeString(file, "# resume\nADD|client-1|scope\r\n  REMOVE|client-2|scope  \n\nADD|client-3|scope");
+
+        try (ExecutionCache cache = ExecutionCache.load(file, true)) {
+            assertTrue(cache.isExecuted(Mode.ADD, "client-1", "scope"));
+            assertTrue(cache.isExecuted(Mode.REMOVE, "client-2", "scope"));
+            assertTrue(cache.isExecuted(Mode.ADD, "client-3", "scope"));
+            assertFalse(cache.isExecuted(Mode.ADD, "client-2", "scope"));
+            cache.record(Mode.ADD, "client-4", "scope");
+            assertTrue(cache.isExecuted(Mode.ADD, "client-4", "scope"));
+        }
+    }
+
+    @Test
+    void binaryJournalDropsTornTailAndCompacts(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cache.bin");
+        try (ExecutionCache cache = ExecutionCache.loadMapped(file, true, JournalSettings.immediate())) {
+            for (int i = 0; i < 3; i++) {
+                cache.record(Mode.ADD, "client-" + i, "scope", i);
+            }
+        }
+        assertEquals(16 + 3 * 24, Files.size(file));
+
+        byte[] records = Arrays.copyOfRange(Files.readAllBytes(file), 16, 16 + 3 * 24);
+        Files.write(file, records, StandardOpenOption.APPEND);
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, StandardOpenOption.APPEND);
+
+        try (ExecutionCache cache = ExecutionCache.loadMapped(file, true, JournalSettings.immediate())) {
+            assertEquals(10, cache.getDiscardedBytes());
+            assertTrue(cache.isExecuted(Mode.ADD, "client-2", "scope"));
+            assertFalse(cache.isExecuted(Mode.REMOVE, "client-2", "scope"));
+            cache.record(Mode.ADD, "client-3", "scope", 3);
+        }
+        // duplicates above 10% are compacted away on load
+        assertEquals(16 + 4 * 24, Files.size(file));
+        assertEquals(4, ExecutionCache.compactMapped(file));
+    }
+}
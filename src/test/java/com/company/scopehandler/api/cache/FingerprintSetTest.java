@@ -0,0 +1,47 @@
+package com.company.scopehandler.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintSetTest {
+
+    @Test
+    void verificationRejectsFingerprintCollisions() {
+        List<byte[]> stored = new ArrayList<>();
+        FingerprintSet set = new FingerprintSet(key -> 42L, (offset, key) -> Arrays.equals(stored.get((int) offset), key));
+        FingerprintSet.OffsetSupplier appender = key -> {
+            stored.add(key);
+            return stored.size() - 1;
+        };
+
+        assertTrue(set.add("ADD|client-1|scope", appender));
+        assertFalse(set.contains("ADD|client-2|scope"));
+        assertTrue(set.add("ADD|client-2|scope", appender));
+        assertFalse(set.add("ADD|client-1|scope", appender));
+
+        assertTrue(set.contains("ADD|client-1|scope"));
+        assertTrue(set.contains("ADD|client-2|scope"));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void growsWithoutLosingKeys() {
+        FingerprintSet set = new FingerprintSet(null);
+        for (int i = 0; i < 10_000; i++) {
+            set.add("ADD|client-" + i + "|scope", key -> -1L);
+        }
+
+        assertEquals(10_000, set.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(set.contains("ADD|client-" + i + "|scope"));
+        }
+        assertFalse(set.contains("REMOVE|client-1|scope"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.company.scopehandler.api.cache;
+
+import com.company.scopehandler.api.domain.Mode;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.services.BatchPlan;
+import com.company.scopehandler.api.services.BatchPlannerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlanCheckpointTest {
+
+    @Test
+    void resumesFromWatermarkSkippingOutOfOrderCompletions(@TempDir Path tempDir) {
+        List<String> clients = List.of("c1", "c2", "c3");
+        List<String> scopes = List.of("s1", "s2");
+        long fingerprint = PlanCheckpoint.fingerprint(Mode.ADD, clients, scopes);
+        Path file = tempDir.resolve("checkpoint.txt");
+
+        try (PlanCheckpoint checkpoint = PlanCheckpoint.load(file, fingerprint, 6, JournalSettings.immediate())) {
+            checkpoint.complete(0, false);
+            checkpoint.complete(2, false);
+            checkpoint.complete(1, true);
+            checkpoint.complete(4, false);
+            assertEquals(3, checkpoint.getWatermark());
+        }
+
+        PlanCheckpoint resumed = PlanCheckpoint.load(file, fingerprint, 6, JournalSettings.immediate());
+        assertTrue(resumed.isResumed());
+        assertEquals(3, resumed.getResumeWatermark());
+        assertEquals(List.of(1L), resumed.getResumeFailed());
+        assertEquals(3, resumed.getResumePending());
+
+        BatchPlan plan = new BatchPlannerService().plan(clients, scopes, resumed);
+        List<String> pairs = new ArrayList<>();
+        for (Operation operation : plan.getOperations()) {
+            pairs.add(operation.getPlanIndex() + ":" + operation.getClientId() + "/" + operation.getScope());
+        }
+        assertEquals(List.of("1:c1/s2", "3:c2/s2", "5:c3/s2"), pairs);
+        assertEquals(3, plan.getTotalOperations());
+
+        resumed.complete(1, false);
+        resumed.complete(3, false);
+        resumed.complete(5, false);
+        assertEquals(6, resumed.getWatermark());
+        resumed.close();
+    }
+
+    @Test
+    void ignoresCheckpointOfAnotherPlan(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("checkpoint.txt");
+        long fingerprint = PlanCheckpoint.fingerprint(Mode.ADD, List.of("c1"), List.of("s1", "s2"));
+        try (PlanCheckpoint checkpoint = PlanCheckpoint.load(file, fingerprint, 2, JournalSettings.immediate())) {
+            checkpoint.complete(0, false);
+        }
+
+        long otherPlan = PlanCheckpoint.fingerprint(Mode.REMOVE, List.of("c1"), List.of("s1", "s2"));
+        try (PlanCheckpoint checkpoint = PlanCheckpoint.load(file, otherPlan, 2, JournalSettings.immediate())) {
+            assertFalse(checkpoint.isResumed());
+            assertEquals(0, checkpoint.getWatermark());
+        }
+    }
+
+    @Test
+    void batchesRewritesWithoutGroupCommit(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("checkpoint.txt");
+        long fingerprint = PlanCheckpoint.fingerprint(Mode.ADD, List.of("c1"), List.of("s1", "s2", "s3"));
+
+        try (PlanCheckpoint checkpoint = PlanCheckpoint.load(file, fingerprint, 3, JournalSettings.immediate())) {
+            checkpoint.complete(0, false);
+            checkpoint.complete(1, false);
+            assertFalse(java.nio.file.Files.exists(file));
+        }
+
+        PlanCheckpoint resumed = PlanCheckpoint.load(file, fingerprint, 3, JournalSettings.immediate());
+        assertEquals(2, resumed.getResumeWatermark());
+        resumed.close();
+    }
+}
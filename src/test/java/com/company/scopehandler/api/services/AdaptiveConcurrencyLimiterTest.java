@@ -0,0 +1,57 @@
+package com.company.scopehandler.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void growsWhileLatencyIsFlatAndHalvesOnOverload() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 16, null);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire();
+            limiter.release(10_000_000L, false);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4, "limit should grow, was " + grown);
+
+        limiter.acquire();
+        limiter.release(10_000_000L, true);
+        assertEquals(Math.max(1, grown / 2), limiter.getLimit());
+    }
+
+    @Test
+    void cutsLimitOnLatencySpike() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 8, 8, null);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(10_000_000L, false);
+        }
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(100_000_000L, false);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void reseedsBaselineAfterLastingLatencyShift() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 8, 8, null);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(10_000_000L, false);
+        }
+        for (int i = 0; i < 400; i++) {
+            limiter.acquire();
+            limiter.release(100_000_000L, false);
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+}
@@ -0,0 +1,43 @@
+package com.company.scopehandler.api.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AffinityTaskExecutorTest {
+
+    @Test
+    void runsEachGroupOnASingleWorker() {
+        Map<String, Set<String>> threadsByClient = new ConcurrentHashMap<>();
+        List<AffinityTaskExecutor.Group<String>> groups = new ArrayList<>();
+        for (int c = 0; c < 40; c++) {
+            String clientId = "client-" + c;
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int s = 0; s < 5; s++) {
+                tasks.add(() -> {
+                    threadsByClient.computeIfAbsent(clientId, key -> ConcurrentHashMap.newKeySet())
+                            .add(Thread.currentThread().getName());
+                    Thread.sleep(1);
+                    return clientId;
+                });
+            }
+            groups.add(new AffinityTaskExecutor.Group<>(clientId, tasks));
+        }
+
+        List<String> results = new ArrayList<>();
+        new AffinityTaskExecutor(2).execute(groups, 4, results::add, error -> {
+        });
+
+        assertEquals(200, results.size());
+        assertEquals(40, threadsByClient.size());
+        assertTrue(threadsByClient.values().stream().allMatch(names -> names.size() == 1));
+    }
+}
@@ -1,5 +1,9 @@
 package com.company.scopehandler.api.services;
 
+import com.company.scopehandler.api.cache.ExecutionCache;
+import com.company.scopehandler.api.cache.JournalSettings;
+import com.company.scopehandler.api.cache.PlanCheckpoint;
+import com.company.scopehandler.api.domain.ExecutorMode;
 import com.company.scopehandler.api.domain.Mode;
 import com.company.scopehandler.api.domain.Operation;
 import com.company.scopehandler.api.domain.OperationResult;
@@ -7,8 +11,12 @@ import com.company.scopehandler.api.strategy.ModeStrategy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -19,7 +27,167 @@ class BatchExecutorServiceTest {
         BatchPlannerService plannerService = new BatchPlannerService();
         BatchPlan plan = plannerService.plan(List.of("c1", "c2"), List.of("s1", "s2"));
 
-        ModeStrategy strategy = new ModeStrategy() {
+        BatchExecutorService executorService = new BatchExecutorService();
+        BatchReport report;
+        try (AuditService auditService = new AuditService(tempDir)) {
+            report = executorService.execute(plan, okStrategy(), auditService, 1, 2, false, null);
+        }
+
+        assertEquals(4, report.getTotal());
+        assertEquals(4, report.getSuccessCount());
+        assertEquals(0, report.getFailureCount());
+    }
+
+    @Test
+    void executesAllOperationsReactively(@TempDir Path tempDir) {
+        BatchPlannerService plannerService = new BatchPlannerService();
+        BatchPlan plan = plannerService.plan(List.of("c1", "c2", "c3"), List.of("s1", "s2"));
+
+        BatchExecutorService executorService = new BatchExecutorService(new TaskExecutorService(ExecutorMode.REACTIVE));
+        BatchReport report;
+        try (AuditService auditService = new AuditService(tempDir)) {
+            report = executorService.execute(plan, okStrategy(), auditService, 1, 4, false, null);
+        }
+
+        assertEquals(6, report.getTotal());
+        assertEquals(6, report.getSuccessCount());
+    }
+
+    @Test
+    void executesEachClientAsOneGroup(@TempDir Path tempDir) {
+        BatchPlannerService plannerService = new BatchPlannerService();
+        BatchPlan plan = plannerService.plan(List.of("c1", "c2", "c3"), List.of("s1", "s2", "s3"));
+        List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+        ModeStrategy ok = okStrategy();
+        ModeStrategy grouped = new ModeStrategy() {
+            @Override
+            public OperationResult execute(Operation operation) {
+                return ok.execute(operation);
+            }
+
+            @Override
+            public List<OperationResult> executeAll(List<Operation> operations) {
+                groupSizes.add(operations.size());
+                return ModeStrategy.super.executeAll(operations);
+            }
+
+            @Override
+            public Mode getMode() {
+                return Mode.ADD;
+            }
+        };
+
+        BatchExecutorService executorService = new BatchExecutorService(
+                new TaskExecutorService(ExecutorMode.PLATFORM), AdaptiveConcurrencySettings.disabled(), true);
+        BatchReport report;
+        try (AuditService auditService = new AuditService(tempDir)) {
+            report = executorService.execute(plan, grouped, auditService, 1, 2, false, null);
+        }
+
+        assertEquals(9, report.getTotal());
+        assertEquals(9, report.getSuccessCount());
+        assertEquals(List.of(3, 3, 3), groupSizes);
+    }
+
+    @Test
+    void failsEachPairOfABrokenGroup(@TempDir Path tempDir) {
+        BatchPlannerService plannerService = new BatchPlannerService();
+        BatchPlan plan = plannerService.plan(List.of("c1", "c2", "c3"), List.of("s1", "s2", "s3"));
+        ModeStrategy broken = new ModeStrategy() {
+            @Override
+            public OperationResult execute(Operation operation) {
+                throw new IllegalStateException("not used");
+            }
+
+            @Override
+            public List<OperationResult> executeAll(List<Operation> operations) {
+                return operations.size() > 1 ? null : List.of();
+            }
+
+            @Override
+            public Mode getMode() {
+                return Mode.ADD;
+            }
+        };
+
+        BatchExecutorService executorService = new BatchExecutorService(
+                new TaskExecutorService(ExecutorMode.PLATFORM), AdaptiveConcurrencySettings.disabled(), true);
+        BatchReport report;
+        try (AuditService auditService = new AuditService(tempDir)) {
+            report = executorService.execute(plan, broken, auditService, 1, 2, false, null);
+        }
+
+        assertEquals(9, report.getTotal());
+        assertEquals(9, report.getFailureCount());
+    }
+
+    @Test
+    void appliesAdaptiveLimitToAffinityWorkers(@TempDir Path tempDir) {
+        BatchPlannerService plannerService = new BatchPlannerService();
+        BatchPlan plan = plannerService.plan(List.of("c1", "c2", "c3", "c4"), List.of("s1", "s2", "s3"));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ModeStrategy ok = okStrategy();
+        ModeStrategy slow = new ModeStrategy() {
+            @Override
+            public OperationResult execute(Operation operation) {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return ok.execute(operation);
+            }
+
+            @Override
+            public Mode getMode() {
+                return Mode.ADD;
+            }
+        };
+
+        BatchExecutorService executorService = new BatchExecutorService(
+                new TaskExecutorService(ExecutorMode.AFFINITY), new AdaptiveConcurrencySettings(true, 1, 1));
+        BatchReport report;
+        try (AuditService auditService = new AuditService(tempDir)) {
+            report = executorService.execute(plan, slow, auditService, 1, 4, false, null);
+        }
+
+        assertEquals(12, report.getSuccessCount());
+        assertEquals(1, peak.get());
+    }
+
+    @Test
+    void keepsThePlanIndexOfAFailedTask(@TempDir Path tempDir) throws IOException {
+        BatchPlannerService plannerService = new BatchPlannerService();
+        BatchPlan plan = plannerService.plan(List.of("c1", "c2"), List.of("s1", "s2"));
+        Path cacheFile = tempDir.resolve("cache.txt");
+        Path checkpointFile = tempDir.resolve("checkpoint.txt");
+        long fingerprint = PlanCheckpoint.fingerprint(Mode.ADD, List.of("c1", "c2"), List.of("s1", "s2"));
+        Files.writeString(cacheFile, "ADD|c1|s1\n");
+
+        BatchExecutorService executorService = new BatchExecutorService();
+        BatchReport report;
+        try (ExecutionCache cache = ExecutionCache.load(cacheFile, true, JournalSettings.immediate(), true);
+             PlanCheckpoint checkpoint = PlanCheckpoint.load(checkpointFile, fingerprint, 4, JournalSettings.immediate());
+             AuditService auditService = new AuditService(tempDir)) {
+            // the verified cache hit can no longer read its record, so the worker fails outside the strategy
+            Files.delete(cacheFile);
+            report = executorService.execute(plan, okStrategy(), auditService, 1, 2, false, cache, checkpoint);
+            assertEquals(4, checkpoint.getWatermark());
+        }
+
+        assertEquals(1, report.getFailureCount());
+        assertEquals(3, report.getSuccessCount());
+        try (PlanCheckpoint resumed = PlanCheckpoint.load(checkpointFile, fingerprint, 4, JournalSettings.immediate())) {
+            assertEquals(List.of(0L), resumed.getResumeFailed());
+        }
+    }
+
+    private ModeStrategy okStrategy() {
+        return new ModeStrategy() {
             @Override
             public OperationResult execute(Operation operation) {
                 return new OperationResult(
@@ -42,15 +210,5 @@ class BatchExecutorServiceTest {
                 return Mode.ADD;
             }
         };
-
-        BatchExecutorService executorService = new BatchExecutorService();
-        BatchReport report;
-        try (AuditService auditService = new AuditService(tempDir)) {
-            report = executorService.execute(plan, strategy, auditService, 1, 2, false, null);
-        }
-
-        assertEquals(4, report.getTotal());
-        assertEquals(4, report.getSuccessCount());
-        assertEquals(0, report.getFailureCount());
     }
 }
@@ -0,0 +1,66 @@
+package com.company.scopehandler.api.services;
+
+import com.company.scopehandler.api.domain.ExecutorMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskExecutorServiceTest {
+
+    @Test
+    void virtualModeLimitsConcurrencyToMaxThreads() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            tasks.add(() -> {
+                int current = running.incrementAndGet();
+                peak.accumulateAndGet(current, Math::max);
+                threadNames.add(Thread.currentThread().getName());
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return value;
+            });
+        }
+
+        List<Integer> results = new ArrayList<>();
+        new TaskExecutorService(ExecutorMode.VIRTUAL).execute(tasks, 4, results::add, error -> {
+        });
+
+        assertEquals(50, results.size());
+        assertTrue(peak.get() <= 4, "peak concurrency " + peak.get());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("vslot-")));
+        assertTrue(threadNames.size() <= 4);
+    }
+
+    @Test
+    void keepsSubmittedTasksWithinWindow() {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicInteger peakOutstanding = new AtomicInteger();
+        Iterable<Callable<Integer>> tasks = new TaskIterable<>(java.util.stream.IntStream.range(0, 500).boxed()::iterator,
+                value -> {
+                    created.incrementAndGet();
+                    return () -> value;
+                });
+
+        new TaskExecutorService(ExecutorMode.PLATFORM, 6).execute(tasks, 3, result -> {
+            peakOutstanding.accumulateAndGet(created.get() - delivered.get(), Math::max);
+            delivered.incrementAndGet();
+        }, error -> {
+        });
+
+        assertEquals(500, delivered.get());
+        assertTrue(peakOutstanding.get() <= 6, "peak outstanding " + peakOutstanding.get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.scopehandler.api.strategy;
+
+import com.company.scopehandler.api.domain.FindMatchMode;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.domain.OperationOutcome;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.domain.OperationStatus;
+import com.company.scopehandler.api.ports.AuthorizationServerService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReconcilingStrategyTest {
+
+    @Test
+    void skipsAssociationsThatAlreadyExist() {
+        CountingClient client = new CountingClient(List.of("scope-1"));
+        ModeStrategy strategy = new ReconcilingStrategy(new AssociateStrategy(client, false), client);
+
+        OperationResult existing = strategy.execute(new Operation("client-1", "scope-1"));
+        OperationResult missing = strategy.executeAsync(new Operation("client-1", "scope-2")).block();
+
+        assertEquals(OperationStatus.SKIP, existing.getStatus());
+        assertEquals(OperationStatus.OK, missing.getStatus());
+        assertEquals(1, client.associations.get());
+    }
+
+    @Test
+    void skipsRemovalsOfScopesNotAssociated() {
+        CountingClient client = new CountingClient(List.of("scope-1"));
+        ModeStrategy strategy = new ReconcilingStrategy(new DissociateStrategy(client), client);
+
+        assertEquals(OperationStatus.SKIP, strategy.execute(new Operation("client-1", "scope-2")).getStatus());
+        assertEquals(OperationStatus.OK, strategy.execute(new Operation("client-1", "scope-1")).getStatus());
+        assertEquals(1, client.dissociations.get());
+    }
+
+    private static final class CountingClient implements AuthorizationServerService {
+        private final List<String> scopes;
+        private final AtomicInteger associations = new AtomicInteger();
+        private final AtomicInteger dissociations = new AtomicInteger();
+
+        private CountingClient(List<String> scopes) {
+            this.scopes = scopes;
+        }
+
+        @Override
+        public OperationOutcome associateScope(String clientId, String scope) {
+            associations.incrementAndGet();
+            return OperationOutcome.ok(201, "associated");
+        }
+
+        @Override
+        public OperationOutcome dissociateScope(String clientId, String scope) {
+            dissociations.incrementAndGet();
+            return OperationOutcome.ok(200, "dissociated");
+        }
+
+        @Override
+        public OperationOutcome createScope(String scope) {
+            return OperationOutcome.ok(200, "created");
+        }
+
+        @Override
+        public List<String> listScopes(String clientId) {
+            return scopes;
+        }
+
+        @Override
+        public List<String> listClients() {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findClientsByScopes(List<String> scopes, FindMatchMode matchMode) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.company.scopehandler.api.strategy;
+
+import com.company.scopehandler.api.domain.FindMatchMode;
+import com.company.scopehandler.api.domain.Operation;
+import com.company.scopehandler.api.domain.OperationOutcome;
+import com.company.scopehandler.api.domain.OperationResult;
+import com.company.scopehandler.api.domain.OperationStatus;
+import com.company.scopehandler.api.domain.WarmupResult;
+import com.company.scopehandler.api.ports.AuthorizationServerService;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmupStrategyTest {
+
+    @Test
+    void failsAPartialSweepNamingTheFailedApplications() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("applications", 3L);
+        counts.put("failures", 2L);
+        ModeStrategy strategy = new WarmupStrategy(new WarmupClient(new WarmupResult(counts, List.of("app-2", "app-3"))));
+
+        OperationResult result = strategy.execute(new Operation("", ""));
+
+        assertEquals(OperationStatus.FAIL, result.getStatus());
+        assertEquals("warmup[fail] applications=3 failures=2 failedAppIds=app-2,app-3", result.getMessage());
+    }
+
+    @Test
+    void succeedsWhenEveryApplicationWasLoaded() {
+        ModeStrategy strategy = new WarmupStrategy(new WarmupClient(
+                new WarmupResult(Map.of("applications", 3L), List.of())));
+
+        OperationResult result = strategy.execute(new Operation("", ""));
+
+        assertEquals(OperationStatus.OK, result.getStatus());
+        assertTrue(result.getMessage().startsWith("warmup[ok]"));
+    }
+
+    private static final class WarmupClient implements AuthorizationServerService {
+        private final WarmupResult result;
+
+        private WarmupClient(WarmupResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public WarmupResult warmUp() {
+            return result;
+        }
+
+        @Override
+        public OperationOutcome associateScope(String clientId, String scope) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OperationOutcome dissociateScope(String clientId, String scope) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OperationOutcome createScope(String scope) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> listScopes(String clientId) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> listClients() {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findClientsByScopes(List<String> scopes, FindMatchMode matchMode) {
+            return List.of();
+        }
+    }
+}
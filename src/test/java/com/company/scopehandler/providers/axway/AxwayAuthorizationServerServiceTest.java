@@ -22,6 +22,7 @@ import java.time.Duration;
 import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AxwayAuthorizationServerServiceTest {
@@ -157,6 +158,329 @@ class AxwayAuthorizationServerServiceTest {
         assertRequest(req3, "DELETE", "/api/portal/v1.2/applications/app-1/scope/scope-1-id");
     }
 
+    @Test
+    void reusesCachedScopeIdsAcrossDissociates(@TempDir Path tempDir) {
+        server.setDispatcher(new AxwayDispatcher()
+                .whenGet("/api/portal/v1.2/applications/oauthclient/client-1", okJson("{\"id\":\"app-1\"}"))
+                .whenGet("/api/portal/v1.2/applications/app-1/scope",
+                        okJson("[{\"id\":\"id-1\",\"scope\":\"scope-1\"},{\"id\":\"id-2\",\"scope\":\"scope-2\"}]"))
+                .whenPost("/api/portal/v1.2/applications/app-1/scope", okJson("{\"id\":\"id-3\",\"scope\":\"scope-3\"}"))
+                .whenDelete("/api/portal/v1.2/applications/app-1/scope/id-1", okJson(""))
+                .whenDelete("/api/portal/v1.2/applications/app-1/scope/id-2", okJson(""))
+                .whenDelete("/api/portal/v1.2/applications/app-1/scope/id-3", okJson("")));
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5)
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2
+        );
+
+        assertTrue(client.dissociateScope("client-1", "scope-1").isSuccess());
+        assertTrue(client.associateScope("client-1", "scope-3").isSuccess());
+        assertTrue(client.dissociateScope("client-1", "scope-2").isSuccess());
+        assertTrue(client.dissociateScope("client-1", "scope-3").isSuccess());
+
+        assertEquals(6, server.getRequestCount());
+        assertRequest(take(), "GET", "/api/portal/v1.2/applications/oauthclient/client-1");
+        assertRequest(take(), "GET", "/api/portal/v1.2/applications/app-1/scope");
+        assertRequest(take(), "DELETE", "/api/portal/v1.2/applications/app-1/scope/id-1");
+        assertRequest(take(), "POST", "/api/portal/v1.2/applications/app-1/scope");
+        assertRequest(take(), "DELETE", "/api/portal/v1.2/applications/app-1/scope/id-2");
+        assertRequest(take(), "DELETE", "/api/portal/v1.2/applications/app-1/scope/id-3");
+    }
+
+    @Test
+    void coalescesConcurrentApplicationLookups(@TempDir Path tempDir) {
+        server.setDispatcher(new AxwayDispatcher()
+                .whenGet("/api/portal/v1.2/applications/oauthclient/client-1", okJson("{\"id\":\"app-1\"}")
+                        .setBodyDelay(200, java.util.concurrent.TimeUnit.MILLISECONDS))
+                .whenPost("/api/portal/v1.2/applications/app-1/scope", okJson("{}")));
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5)
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2
+        );
+
+        java.util.List<OperationOutcome> outcomes = reactor.core.publisher.Flux.range(0, 8)
+                .flatMap(i -> client.associateScopeAsync("client-1", "scope-" + i))
+                .collectList()
+                .block();
+
+        assertEquals(8, outcomes.size());
+        assertTrue(outcomes.stream().allMatch(OperationOutcome::isSuccess));
+        assertEquals(9, server.getRequestCount());
+        assertEquals(7L, client.metrics().get("singleFlight.applications.coalesced"));
+    }
+
+    @Test
+    void retriesTransientLookupFailures(@TempDir Path tempDir) {
+        java.util.concurrent.atomic.AtomicInteger lookups = new java.util.concurrent.atomic.AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("GET".equals(request.getMethod())) {
+                    if (lookups.incrementAndGet() == 1) {
+                        return new MockResponse().setResponseCode(503).addHeader("Retry-After", "0");
+                    }
+                    return okJson("{\"id\":\"app-1\"}");
+                }
+                return okJson("{}");
+            }
+        });
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5),
+                AxwayRateLimiter.disabled(),
+                new AxwayRetryPolicy(3, 5, 20, 1000, 0.1, 5),
+                AxwayCircuitBreaker.disabled()
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2
+        );
+
+        OperationOutcome outcome = client.associateScope("client-1", "scope-1");
+
+        assertTrue(outcome.isSuccess());
+        assertEquals(1, outcome.getRetries());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1L, client.metrics().get("retry.retries"));
+    }
+
+    @Test
+    void skipsDeleteNotFoundOnlyAfterRetry(@TempDir Path tempDir) {
+        java.util.concurrent.atomic.AtomicInteger deletes = new java.util.concurrent.atomic.AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if ("DELETE".equals(request.getMethod())) {
+                    if (path.startsWith("/api/portal/v1.2/applications/app-1/") && deletes.incrementAndGet() == 1) {
+                        return new MockResponse().setResponseCode(503).addHeader("Retry-After", "0");
+                    }
+                    return new MockResponse().setResponseCode(404);
+                }
+                if (path.startsWith("/api/portal/v1.2/applications/oauthclient/")) {
+                    return okJson("{\"id\":\"" + path.substring(path.lastIndexOf('/') + 1).replace("client", "app") + "\"}");
+                }
+                return okJson("[{\"id\":\"scope-1-id\",\"scope\":\"scope-1\"}]");
+            }
+        });
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5),
+                AxwayRateLimiter.disabled(),
+                new AxwayRetryPolicy(3, 5, 20, 1000, 0.1, 5),
+                AxwayCircuitBreaker.disabled()
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2
+        );
+
+        OperationOutcome retried = client.dissociateScope("client-1", "scope-1");
+        OperationOutcome firstAttempt = client.dissociateScope("client-2", "scope-1");
+
+        assertEquals("SKIP", retried.getStatus().name());
+        assertEquals(1, retried.getRetries());
+        assertEquals("FAIL", firstAttempt.getStatus().name());
+        assertEquals(404, firstAttempt.getStatusCode());
+    }
+
+    @Test
+    void warmUpFillsBothCachesSoLaterOperationsSkipLookups(@TempDir Path tempDir) {
+        server.setDispatcher(new AxwayDispatcher()
+                .whenGet("/api/portal/v1.2/applications", okJson("[{\"id\":\"app-1\"},{\"id\":\"app-2\"}]"))
+                .whenGet("/api/portal/v1.2/applications/app-1/oauth", okJson("[{\"id\":\"client-1\"}]"))
+                .whenGet("/api/portal/v1.2/applications/app-2/oauth", okJson("[{\"id\":\"client-2\"},{\"id\":\"client-3\"}]"))
+                .whenGet("/api/portal/v1.2/applications/app-1/scope", okJson("[{\"id\":\"id-1\",\"scope\":\"scope-1\"}]"))
+                .whenGet("/api/portal/v1.2/applications/app-2/scope", okJson("[]"))
+                .whenPost("/api/portal/v1.2/applications/app-2/scope", okJson("{\"id\":\"id-9\",\"scope\":\"scope-9\"}"))
+                .whenDelete("/api/portal/v1.2/applications/app-1/scope/id-1", okJson("")));
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5)
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2
+        );
+
+        com.company.scopehandler.api.domain.WarmupResult result = client.warmUp();
+        java.util.Map<String, Long> counts = result.getCounts();
+
+        assertEquals(2L, counts.get("applications"));
+        assertEquals(3L, counts.get("clients"));
+        assertEquals(0L, counts.get("failures"));
+        assertFalse(result.hasFailures());
+        assertEquals(5, server.getRequestCount());
+        assertTrue(java.nio.file.Files.exists(tempDir.resolve("axway.json")));
+        assertTrue(java.nio.file.Files.exists(tempDir.resolve("axway-scopes.json")));
+        for (int i = 0; i < 5; i++) {
+            take();
+        }
+
+        assertTrue(client.associateScope("client-3", "scope-9").isSuccess());
+        assertTrue(client.dissociateScope("client-1", "scope-1").isSuccess());
+        assertEquals(java.util.List.of("scope-9"), client.listScopes("client-2"));
+
+        assertEquals(7, server.getRequestCount());
+        assertRequest(take(), "POST", "/api/portal/v1.2/applications/app-2/scope");
+        assertRequest(take(), "DELETE", "/api/portal/v1.2/applications/app-1/scope/id-1");
+
+        assertEquals(java.util.Set.of("client-2", "client-3"), java.util.Set.copyOf(client.findClientsByScopes(
+                java.util.List.of("scope-9"), com.company.scopehandler.api.domain.FindMatchMode.AND)));
+        assertEquals(java.util.List.of(), client.findClientsByScopes(
+                java.util.List.of("scope-1"), com.company.scopehandler.api.domain.FindMatchMode.OR));
+        assertEquals(7, server.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    void servesStaleScopesWhileRefreshingInBackground(@TempDir Path tempDir) throws Exception {
+        server.setDispatcher(new AxwayDispatcher()
+                .whenGet("/api/portal/v1.2/applications/oauthclient/client-1", okJson("{\"id\":\"app-1\"}"))
+                .whenGet("/api/portal/v1.2/applications/app-1/scope", okJson("[{\"id\":\"id-2\",\"scope\":\"scope-2\"}]")
+                        .setBodyDelay(200, java.util.concurrent.TimeUnit.MILLISECONDS)));
+        java.nio.file.Files.writeString(tempDir.resolve("axway-scopes.json"),
+                "{\"appScopes\":{\"app-1\":{\"timestamp\":" + (System.currentTimeMillis() - 5_000)
+                        + ",\"scopes\":[\"scope-1\"]}}}");
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5)
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"),
+                        new com.fasterxml.jackson.databind.ObjectMapper(), 100, 1_000, 60_000, 600_000),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2,
+                AxwayFindEngine.INDEX,
+                1
+        );
+
+        assertEquals(java.util.List.of("scope-1"), client.listScopes("client-1"));
+        assertEquals(java.util.List.of("scope-1"), client.listScopes("client-1"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (client.metrics().get("scopeCache.refreshes") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(java.util.List.of("scope-2"), client.listScopes("client-1"));
+        assertEquals(1L, client.metrics().get("scopeCache.refreshes"));
+        assertEquals(2L, client.metrics().get("scopeCache.staleHits"));
+        assertEquals(2, server.getRequestCount());
+        client.close();
+    }
+
+    @Test
+    void readsCurrentScopesOnlyWithinTheTtl(@TempDir Path tempDir) throws Exception {
+        server.setDispatcher(new AxwayDispatcher()
+                .whenGet("/api/portal/v1.2/applications/oauthclient/client-1", okJson("{\"id\":\"app-1\"}"))
+                .whenGet("/api/portal/v1.2/applications/app-1/scope", okJson("[{\"id\":\"id-2\",\"scope\":\"scope-2\"}]")));
+        java.nio.file.Files.writeString(tempDir.resolve("axway-scopes.json"),
+                "{\"appScopes\":{\"app-1\":{\"timestamp\":" + (System.currentTimeMillis() - 5_000)
+                        + ",\"scopes\":[\"scope-1\"]}}}");
+
+        AuthorizationServerSettings asSettings = settings(server.url("/").toString());
+        HttpRequestLogger logger = new HttpRequestLogger(tempDir.resolve("axway.log"));
+        var baseClient = HttpWebClientFactory.build(logger);
+        var webClient = baseClient.mutate()
+                .baseUrl(asSettings.getBaseUrl())
+                .defaultHeader("Authorization", basicAuth(asSettings.getUsername(), asSettings.getPassword()))
+                .defaultHeader("Accept", "application/json").build();
+        AxwayAuthorizationServerClient rpcClient = new AxwayAuthorizationServerClient(
+                webClient,
+                Duration.ofSeconds(5)
+        );
+        AxwayAuthorizationServerService client = new AxwayAuthorizationServerService(
+                rpcClient,
+                new AxwayCacheStore(tempDir.resolve("axway.json"), new com.fasterxml.jackson.databind.ObjectMapper()),
+                new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"),
+                        new com.fasterxml.jackson.databind.ObjectMapper(), 100, 1_000, 60_000, 600_000),
+                new com.company.scopehandler.api.services.TaskExecutorService(),
+                2,
+                AxwayFindEngine.INDEX,
+                1
+        );
+
+        assertEquals(java.util.List.of("scope-2"), client.listCurrentScopes("client-1"));
+        assertEquals(java.util.List.of("scope-2"), client.listCurrentScopes("client-1"));
+        assertEquals(0L, client.metrics().get("scopeCache.staleHits"));
+        assertEquals(0L, client.metrics().get("scopeCache.refreshes"));
+        assertEquals(2, server.getRequestCount());
+        client.close();
+    }
+
     private AuthorizationServerSettings settings(String baseUrl) {
         return AuthorizationServerSettings.from(new com.company.scopehandler.api.config.AppConfig(new java.util.Properties() {{
             setProperty("as.axway.env.dev.baseUrl", baseUrl);
@@ -0,0 +1,45 @@
+package com.company.scopehandler.providers.axway;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AxwayCircuitBreakerTest {
+
+    @Test
+    void opensAfterFailuresAndClosesAfterSuccessfulProbe() throws Exception {
+        List<String> transitions = new ArrayList<>();
+        AxwayCircuitBreaker breaker = new AxwayCircuitBreaker(2, Duration.ofMillis(500), transitions::add);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new TimeoutException("timeout"));
+        });
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> breaker.protect(AxwayEndpoint.APP_SCOPES_POST, failing).block());
+        }
+        assertEquals(AxwayCircuitBreaker.State.OPEN, breaker.getState("scope"));
+
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> breaker.protect(AxwayEndpoint.APP_SCOPES_DELETE, failing).block());
+        assertTrue(rejected instanceof AxwayCircuitBreaker.CircuitOpenException);
+        assertEquals(2, calls.get());
+        assertEquals(AxwayCircuitBreaker.State.CLOSED, breaker.getState("applications"));
+
+        Thread.sleep(600);
+        assertEquals("ok", breaker.protect(AxwayEndpoint.APP_SCOPES_GET, Mono.just("ok")).block());
+        assertEquals(AxwayCircuitBreaker.State.CLOSED, breaker.getState("scope"));
+        assertEquals(3, transitions.size());
+        assertEquals(1L, breaker.metrics().get("circuit.scope.rejected"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.company.scopehandler.providers.axway;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AxwayRateLimiterTest {
+
+    @Test
+    void spacesReservationsAfterBurst() {
+        AxwayRateLimiter limiter = new AxwayRateLimiter(1, 2, Map.of());
+
+        assertEquals(0L, limiter.reserveEndpoint(AxwayEndpoint.APPLICATION_BY_CLIENT));
+        assertEquals(0L, limiter.reserveGlobal());
+        assertEquals(0L, limiter.reserveGlobal());
+        long wait = limiter.reserveGlobal();
+        assertTrue(wait > 500_000_000L && wait <= 1_000_000_000L, "global wait " + wait);
+    }
+
+    @Test
+    void appliesEndpointOverrideOnlyToThatEndpoint() {
+        AxwayRateLimiter limiter = new AxwayRateLimiter(0, 1, Map.of(AxwayEndpoint.APP_SCOPES_POST, 0.5));
+
+        assertEquals(0L, limiter.reserveEndpoint(AxwayEndpoint.APP_SCOPES_POST));
+        assertTrue(limiter.reserveEndpoint(AxwayEndpoint.APP_SCOPES_POST) > 1_500_000_000L);
+        assertEquals(0L, limiter.reserveEndpoint(AxwayEndpoint.APP_SCOPES_DELETE));
+        assertEquals(0L, limiter.reserveGlobal());
+    }
+
+    @Test
+    void recordsWaitTimeWhenThrottled() {
+        AxwayRateLimiter limiter = new AxwayRateLimiter(20, 1, Map.of());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(AxwayEndpoint.APP_SCOPES_GET).block();
+        }
+
+        assertEquals(2L, limiter.metrics().get("rateLimit.throttled"));
+        assertTrue(limiter.metrics().get("rateLimit.waitMs") > 0);
+    }
+
+    @Test
+    void takesGlobalPermitOnlyAfterEndpointWait() {
+        AxwayRateLimiter limiter = new AxwayRateLimiter(20, 1, Map.of(AxwayEndpoint.APP_SCOPES_POST, 10.0));
+
+        limiter.acquire(AxwayEndpoint.APP_SCOPES_POST).block();
+        long start = System.nanoTime();
+        limiter.acquire(AxwayEndpoint.APP_SCOPES_POST).subscribe();
+        limiter.acquire(AxwayEndpoint.APP_SCOPES_GET).block();
+
+        // the held-back POST has not taken a global permit yet, so the GET only waits for the first one
+        assertTrue(System.nanoTime() - start < 90_000_000L);
+    }
+
+    @Test
+    void doesNotGrowBurstWhileIdle() throws Exception {
+        AxwayRateLimiter limiter = new AxwayRateLimiter(100, 3, Map.of());
+
+        Thread.sleep(60);
+        int immediate = 0;
+        for (int i = 0; i < 5; i++) {
+            if (limiter.reserveGlobal() == 0L) {
+                immediate++;
+            }
+        }
+
+        assertEquals(3, immediate);
+    }
+}
@@ -0,0 +1,124 @@
+package com.company.scopehandler.providers.axway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AxwayCacheStoreTest {
+
+    @Test
+    void replaysJournalLeftByInterruptedRun(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-cache.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        AxwayCacheStore store = new AxwayCacheStore(file, mapper, 10, 600_000);
+        for (int i = 0; i < 1000; i++) {
+            store.putAppId("client-" + i, "app-" + i);
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lines(journalOf(tempDir)) < 1000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Path journal = journalOf(tempDir);
+        assertEquals(1000, lines(journal));
+        assertFalse(Files.exists(file));
+        Files.writeString(journal, "{\"clientId\":\"client-x\",\"app", StandardOpenOption.APPEND);
+        // copied under a name no open store owns, as a crashed run of this pid would leave it
+        Path interrupted = tempDir.resolve("axway-cache.json." + ProcessHandle.current().pid() + "-0.journal");
+        Files.copy(journal, interrupted);
+
+        try (AxwayCacheStore reloaded = new AxwayCacheStore(file, mapper, 10, 600_000)) {
+            assertEquals("app-999", reloaded.getAppId("client-999"));
+            assertNull(reloaded.getAppId("client-x"));
+            assertTrue(Files.exists(file));
+            assertFalse(Files.exists(interrupted));
+            assertTrue(Files.exists(journal));
+            reloaded.putAppId("client-1000", "app-1000");
+        }
+
+        assertFalse(Files.exists(interrupted));
+        AxwayCacheData data = mapper.readValue(file.toFile(), AxwayCacheData.class);
+        assertEquals(1001, data.getClientToAppId().size());
+    }
+
+    @Test
+    void mergesEntriesOfProcessesSharingTheDirectory(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-cache.json");
+        ObjectMapper mapper = new ObjectMapper();
+        Path orphan = tempDir.resolve("axway-cache.json." + Long.MAX_VALUE + ".journal");
+        Files.writeString(orphan, "{\"clientId\":\"client-dead\",\"appId\":\"app-dead\"}\n");
+        // not a pid, so no run can ever fold it: it stands for the journal of another live process
+        Path live = tempDir.resolve("axway-cache.json.live.journal");
+        Files.writeString(live, "{\"clientId\":\"client-live\",\"appId\":\"app-live\"}\n");
+
+        AxwayCacheStore first = new AxwayCacheStore(file, mapper, 10, 600_000);
+        AxwayCacheStore second = new AxwayCacheStore(file, mapper, 10, 600_000);
+        assertEquals("app-dead", second.getAppId("client-dead"));
+        assertEquals("app-live", second.getAppId("client-live"));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(live));
+
+        first.putAppId("client-1", "app-1");
+        second.putAppId("client-2", "app-2");
+        first.close();
+        second.close();
+
+        AxwayCacheData data = mapper.readValue(file.toFile(), AxwayCacheData.class);
+        assertEquals("app-1", data.getClientToAppId().get("client-1"));
+        assertEquals("app-2", data.getClientToAppId().get("client-2"));
+        assertEquals("app-dead", data.getClientToAppId().get("client-dead"));
+        assertEquals(4, data.getClientToAppId().size());
+    }
+
+    @Test
+    void findsClientIdsOfRemappedApplications(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("axway-cache.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayCacheStore store = new AxwayCacheStore(file, mapper, 10, 600_000)) {
+            store.putAppId("client-1", "app-1");
+            store.putAppId("client-2", "app-1");
+            store.putAppId("client-3", "app-2");
+            store.putAppId("client-2", "app-2");
+            store.putAppIds(Map.of("client-4", "app-1", "client-3", "app-3"));
+
+            assertEquals(Set.of("client-1", "client-4"), store.getClientIds(Set.of("app-1")));
+            assertEquals(Set.of("client-2", "client-3"), store.getClientIds(Set.of("app-2", "app-3")));
+            assertEquals(Set.of(), store.getClientIds(Set.of("app-4")));
+        }
+
+        try (AxwayCacheStore reloaded = new AxwayCacheStore(file, mapper, 10, 600_000)) {
+            assertEquals(Set.of("client-2"), reloaded.getClientIds(Set.of("app-2")));
+        }
+    }
+
+    private static Path journalOf(Path dir) throws Exception {
+        String prefix = "axway-cache.json." + ProcessHandle.current().pid() + "-";
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .findFirst()
+                    .orElse(dir.resolve(prefix + "missing.journal"));
+        }
+    }
+
+    private static long lines(Path journal) throws Exception {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        String content = Files.readString(journal, StandardCharsets.UTF_8);
+        return content.endsWith("\n") ? content.lines().count() : 0;
+    }
+}
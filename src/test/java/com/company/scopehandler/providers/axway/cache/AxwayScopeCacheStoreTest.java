@@ -0,0 +1,249 @@
+package com.company.scopehandler.providers.axway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AxwayScopeCacheStoreTest {
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiresOnRead(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 2, 60_000, 600_000)) {
+            store.putScopes("app-1", List.of("a"), Map.of("a", "id-a"));
+            store.putScopes("app-2", List.of("b"));
+            assertNotNull(store.getScopes("app-1"));
+            store.putScopes("app-3", List.of("c"));
+
+            assertNull(store.getScopes("app-2"));
+            assertEquals(List.of("a"), store.getScopes("app-1"));
+            assertEquals("id-a", store.getScopeIds("app-1").get("a"));
+            Map<String, Long> metrics = store.metrics();
+            assertEquals(1L, metrics.get("scopeCache.evictions"));
+            assertEquals(3L, metrics.get("scopeCache.hits"));
+            assertEquals(1L, metrics.get("scopeCache.misses"));
+            assertEquals(2L, metrics.get("scopeCache.size"));
+            assertFalse(Files.exists(file));
+        }
+
+        AxwayScopeCacheData data = mapper.readValue(file.toFile(), AxwayScopeCacheData.class);
+        assertEquals(2, data.getAppScopes().size());
+
+        try (AxwayScopeCacheStore expired = new AxwayScopeCacheStore(file, mapper, 2, 60_000, 600_000)) {
+            assertEquals(List.of("c"), expired.getScopes("app-3"));
+        }
+        try (AxwayScopeCacheStore expired = new AxwayScopeCacheStore(file, mapper, 2, 0, 600_000)) {
+            Thread.sleep(5);
+            assertNull(expired.getScopes("app-3"));
+            assertEquals(0L, expired.metrics().get("scopeCache.size"));
+        }
+    }
+
+    @Test
+    void keepsEvictedEntriesFromComingBackOnMerge(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+        long now = System.currentTimeMillis();
+        Files.writeString(file, "{\"appScopes\":{"
+                + "\"app-1\":{\"timestamp\":" + now + ",\"scopes\":[\"a\"],\"version\":1},"
+                + "\"app-2\":{\"timestamp\":" + (now + 1) + ",\"scopes\":[\"b\"],\"version\":2}}}");
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 2, 60_000, 0, 10, 10)) {
+            assertNotNull(store.getScopes("app-1"));
+            store.putScopes("app-3", List.of("c"));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (store.metrics().get("scopeCache.flushes") < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1L, store.metrics().get("scopeCache.flushes"));
+            assertNull(store.getScopes("app-2"));
+            assertEquals(1L, store.metrics().get("scopeCache.evictions"));
+        }
+
+        AxwayScopeCacheData data = mapper.readValue(file.toFile(), AxwayScopeCacheData.class);
+        assertEquals(Set.of("app-1", "app-3"), data.getAppScopes().keySet());
+    }
+
+    @Test
+    void replaysJournalLeftByInterruptedRun(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+        long now = System.currentTimeMillis();
+        Path orphan = tempDir.resolve("axway-scopes.json." + Long.MAX_VALUE + "-1.journal");
+        Files.writeString(orphan,
+                "{\"appId\":\"app-1\",\"entry\":{\"timestamp\":" + now + ",\"scopes\":[\"read\"],\"version\":5}}\n"
+                        + "{\"appId\":\"app-2\",\"entry\":{\"timestamp\":" + now + ",\"scopes\":[\"write\"],\"version\":6}}\n"
+                        + "{\"appId\":\"app-2\",\"removed\":7}\n"
+                        + "{\"appId\":\"app-3\",\"ent");
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            assertEquals(List.of("read"), store.getScopes("app-1"));
+            assertNull(store.getScopes("app-2"));
+            assertNull(store.getScopes("app-3"));
+            assertTrue(Files.exists(file));
+            assertFalse(Files.exists(orphan));
+            assertFalse(store.putScopesIfUnchanged("app-2", List.of("write"), Map.of(), 6));
+        }
+
+        AxwayScopeCacheData data = mapper.readValue(file.toFile(), AxwayScopeCacheData.class);
+        assertEquals(Set.of("app-1"), data.getAppScopes().keySet());
+    }
+
+    @Test
+    void answersFindFromIndexOnlyAfterCompleteSweep(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            store.putScopes("app-1", List.of("read", "write"));
+            assertNull(store.findApplications(List.of("read"), false));
+
+            store.putAllScopes(
+                    Map.of("app-1", List.of("read", "write"), "app-2", List.of("read"), "app-3", List.of()),
+                    Map.of(),
+                    true);
+            assertEquals(Set.of("app-1", "app-2"), store.findApplications(List.of("read"), false));
+            assertEquals(Set.of("app-1"), store.findApplications(List.of("read", "write"), false));
+            assertEquals(Set.of("app-1", "app-2"), store.findApplications(List.of("write", "read"), true));
+
+            store.addScope("app-3", "write", "id-w");
+            store.removeScope("app-1", "write");
+            assertEquals(Set.of("app-3"), store.findApplications(List.of("write"), false));
+        }
+
+        try (AxwayScopeCacheStore reloaded = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            assertEquals(Set.of("app-1", "app-2"), reloaded.findApplications(List.of("read"), false));
+            reloaded.evict("app-2");
+            assertNull(reloaded.findApplications(List.of("read"), false));
+        }
+    }
+
+    @Test
+    void dropsApplicationsLeftOutOfANewerSweep(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            AxwayScopeCacheStore other = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000);
+            other.putAllScopes(Map.of("app-1", List.of("read"), "app-2", List.of("read")), Map.of(), true);
+            store.putAllScopes(Map.of("app-1", List.of("read"), "app-2", List.of("read")), Map.of(), true);
+            Thread.sleep(5);
+            store.putAllScopes(Map.of("app-1", List.of("read")), Map.of(), true);
+            assertEquals(Set.of("app-1"), store.findApplications(List.of(), false));
+            assertEquals(Set.of("app-1"), store.findApplications(List.of("read"), false));
+
+            // a process still holding the older sweep saves after this one
+            other.close();
+            assertEquals(Set.of("app-1"), mapper.readValue(file.toFile(), AxwayScopeCacheData.class)
+                    .getAppScopes().keySet());
+        }
+
+        try (AxwayScopeCacheStore reloaded = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            assertEquals(Set.of("app-1"), reloaded.findApplications(List.of(), false));
+            assertNull(reloaded.getScopes("app-2"));
+        }
+    }
+
+    @Test
+    void bitsetEngineMatchesInvertedIndex(@TempDir Path tempDir) {
+        java.util.Random random = new java.util.Random(42);
+        Map<String, List<String>> scopes = new java.util.HashMap<>();
+        for (int app = 0; app < 10_000; app++) {
+            List<String> appScopes = new java.util.ArrayList<>();
+            for (int i = random.nextInt(6); i > 0; i--) {
+                appScopes.add("scope-" + random.nextInt(300));
+            }
+            scopes.put("app-" + app, appScopes);
+        }
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(tempDir.resolve("axway-scopes.json"),
+                new ObjectMapper(), 20_000, 60_000, 600_000)) {
+            store.putAllScopes(scopes, Map.of(), true);
+            for (int query = 0; query < 50; query++) {
+                List<String> expected = List.of("scope-" + random.nextInt(300), "scope-" + random.nextInt(300));
+                assertEquals(store.findApplications(expected, false), store.matchApplications(expected, false));
+                assertEquals(store.findApplications(expected, true), store.matchApplications(expected, true));
+            }
+            assertEquals(Set.of(), store.matchApplications(List.of("scope-1", "missing"), false));
+
+            store.addScope("app-0", "scope-new", null);
+            assertEquals(Set.of("app-0"), store.matchApplications(List.of("scope-new"), true));
+        }
+    }
+
+    @Test
+    void discardsListingsOlderThanWriteThrough(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayScopeCacheStore store = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            store.putScopes("app-1", List.of("read"), Map.of("read", "id-r"));
+            long token = store.versionToken();
+            store.addScope("app-1", "write", "id-w");
+            assertFalse(store.putScopesIfUnchanged("app-1", List.of("read"), Map.of("read", "id-r"), token));
+            assertEquals(List.of("read", "write"), store.getScopes("app-1"));
+            assertEquals("id-w", store.getScopeIds("app-1").get("write"));
+
+            long absentToken = store.versionToken();
+            store.removeScope("app-2", "read");
+            assertFalse(store.putScopesIfUnchanged("app-2", List.of("read"), Map.of(), absentToken));
+            assertNull(store.getScopes("app-2"));
+
+            assertTrue(store.putScopesIfUnchanged("app-2", List.of(), Map.of(), store.versionToken()));
+            assertEquals(List.of(), store.getScopes("app-2"));
+            assertEquals(2L, store.metrics().get("scopeCache.conflicts"));
+        }
+
+        try (AxwayScopeCacheStore reloaded = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 600_000)) {
+            long token = reloaded.versionToken();
+            reloaded.removeScope("app-1", "read");
+            assertFalse(reloaded.putScopesIfUnchanged("app-1", List.of("read", "write"), Map.of(), token));
+            assertEquals(List.of("write"), reloaded.getScopes("app-1"));
+        }
+    }
+
+    @Test
+    void sharesListingsBetweenStoresOnTheSameFile(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("axway-scopes.json");
+        ObjectMapper mapper = new ObjectMapper();
+
+        try (AxwayScopeCacheStore first = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 0, 10, 10);
+             AxwayScopeCacheStore second = new AxwayScopeCacheStore(file, mapper, 10, 60_000, 0, 10, 10)) {
+            first.putScopes("app-1", List.of("read"));
+            second.putScopes("app-2", List.of("write"));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while ((first.getScopes("app-2") == null || second.getScopes("app-1") == null)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(List.of("write"), first.getScopes("app-2"));
+            assertEquals(List.of("read"), second.getScopes("app-1"));
+
+            second.addScope("app-1", "write", null);
+            deadline = System.currentTimeMillis() + 5_000;
+            while (first.getScopes("app-1").size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(List.of("read", "write"), first.getScopes("app-1"));
+        }
+
+        AxwayScopeCacheData data = mapper.readValue(file.toFile(), AxwayScopeCacheData.class);
+        assertEquals(Set.of("app-1", "app-2"), data.getAppScopes().keySet());
+        assertEquals(List.of("read", "write"), data.getAppScopes().get("app-1").getScopes());
+    }
+}